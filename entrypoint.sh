@@ -17,4 +17,11 @@
 
 # Arguments are passed directly from action.yml in order:
 # flowA, flowB, token, repository, issuenumber, checkstyle, checkstyle-rules, checkstyle-fail
-java -jar /flow-diff.jar "$@"
+# followed by named options such as --parallelism=<n>
+# The class data sharing archive recorded when building the image (see FlowDiffTraining) is used when
+# present, the JVM silently loading the classes from the jar if it does not match the jar or the JVM
+if [ -f /flow-diff.jsa ]; then
+    java -XX:SharedArchiveFile=/flow-diff.jsa -Xlog:cds=off -Xlog:cds+dynamic=off -jar /flow-diff.jar "$@"
+else
+    java -jar /flow-diff.jar "$@"
+fi
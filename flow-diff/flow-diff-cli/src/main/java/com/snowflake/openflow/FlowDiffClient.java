@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.snapshot.GitObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Forwards a run to a {@link FlowDiffDaemon}. The paths are made absolute as the daemon may run in
+ * another directory, and the GitHub parameters are kept by the client which publishes the report.
+ * The runs reading flows from the git repository of the client are not forwarded, see {@link #isForwardable(String[])}.
+ */
+final class FlowDiffClient {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+
+    private FlowDiffClient() {
+    }
+
+    /**
+     * @param address the {@code [host:]port} of the daemon
+     * @param args the arguments of the run
+     * @param out the stream the report is written to
+     * @return the exit code of the run, -1 if the daemon is busy and the flows must be compared by this process
+     * @throws java.net.ConnectException if the daemon is not reachable
+     */
+    static int forward(final String address, final String[] args, final PrintStream out) throws IOException {
+        final URI uri = URI.create("http://" + (address.contains(":") ? address : "localhost:" + address) + FlowDiffDaemon.DIFF_PATH);
+        final byte[] body = String.join(FlowDiffDaemon.ARGUMENT_SEPARATOR, forwardedArguments(args)).getBytes(StandardCharsets.UTF_8);
+
+        // a plain connection, the HTTP client of the JDK takes longer to start than the daemon takes to compare most flows
+        final HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream requestBody = connection.getOutputStream()) {
+                requestBody.write(body);
+            }
+
+            if (connection.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE) {
+                return -1;
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                try (InputStream error = connection.getErrorStream()) {
+                    final String message = error == null ? "HTTP " + connection.getResponseCode() : new String(error.readAllBytes(), StandardCharsets.UTF_8);
+                    throw new IOException("The Flow Diff daemon failed to compare the flows: " + message);
+                }
+            }
+            try (InputStream report = connection.getInputStream()) {
+                out.write(report.readAllBytes());
+            }
+            out.flush();
+            return Integer.parseInt(connection.getHeaderField(FlowDiffDaemon.EXIT_CODE_HEADER));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @param args the arguments of the run
+     * @return false if flows are given as {@code <rev>:<path>} specs, which the daemon would read from
+     *         its own working directory rather than from the repository of the client
+     */
+    static boolean isForwardable(final String[] args) {
+        final String[] positional = FlowDiffOptions.positionalArguments(args);
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(args);
+        final List<String> locations = new ArrayList<>();
+        for (int i = 0; i < Math.min(2, positional.length); i++) {
+            locations.addAll(Arrays.asList(positional[i].split(",")));
+        }
+        if (options.getHistory() != null) {
+            locations.addAll(Arrays.asList(options.getHistory().split(",")));
+        }
+        return locations.stream().map(String::trim).noneMatch(GitObjectReader::isRevisionSpec);
+    }
+
+    static List<String> forwardedArguments(final String[] args) {
+        final List<String> positional = new ArrayList<>(Arrays.asList(FlowDiffOptions.positionalArguments(args)));
+        for (int i = 0; i < positional.size(); i++) {
+            if (i == 0 || i == 1 || i == 6) {
+                positional.set(i, absolutePaths(positional.get(i)));
+            } else if (i >= 2 && i <= 4) {
+                // the report is published by the client
+                positional.set(i, "");
+            }
+        }
+
+        final List<String> forwarded = new ArrayList<>(positional);
+        for (String arg : args) {
+            if (!arg.startsWith(FlowDiffOptions.OPTION_PREFIX) || arg.startsWith("--daemon=")) {
+                continue;
+            }
+            if (arg.startsWith("--history=")) {
+                forwarded.add("--history=" + absolutePaths(arg.substring("--history=".length())));
+            } else if (arg.startsWith("--cache-dir=")) {
+                forwarded.add("--cache-dir=" + absolutePaths(arg.substring("--cache-dir=".length())));
+            } else {
+                forwarded.add(arg);
+            }
+        }
+        return forwarded;
+    }
+
+    private static String absolutePaths(final String paths) {
+        if (paths == null || paths.isBlank()) {
+            return paths;
+        }
+        return Arrays.stream(paths.split(","))
+                .map(String::trim)
+                .map(path -> path.isEmpty() ? path : Path.of(path).toAbsolutePath().toString())
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesReader;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running process comparing the flows of the runs forwarded by {@link FlowDiffClient}, so that
+ * the runs share a warm JVM, the parsed checkstyle configurations and the most recently parsed
+ * snapshots (see {@link FlowDiffOptions#getMemoryCacheSizeMb()}). The runs name files of the local
+ * file system, the daemon only listens on the loopback address.
+ * <p>
+ * The options changing how the snapshots are loaded are the ones given to the daemon, the other
+ * options are the ones of each run.
+ */
+public class FlowDiffDaemon implements Closeable {
+
+    // the request is made of the arguments of the run, the response of its report and exit code
+    static final String DIFF_PATH = "/diff";
+    static final String ARGUMENT_SEPARATOR = "\0";
+    static final String EXIT_CODE_HEADER = "Flow-Diff-Exit-Code";
+    static final long DEFAULT_MEMORY_CACHE_SIZE_MB = 256;
+
+    private static final int MAX_CACHED_RULES = 64;
+
+    private final SnapshotLoader snapshotLoader;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    // access order, the least recently used configuration is evicted first
+    private final Map<Path, CachedRules> rulesCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Path, CachedRules> eldest) {
+            return size() > MAX_CACHED_RULES;
+        }
+    };
+
+    public FlowDiffDaemon(final FlowDiffOptions options) throws IOException {
+        if (options.getMemoryCacheSizeMb() <= 0) {
+            options.setMemoryCacheSizeMb(DEFAULT_MEMORY_CACHE_SIZE_MB);
+        }
+        this.snapshotLoader = FlowDiff.createSnapshotLoader(options);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), Math.max(0, options.getServePort())), 0);
+        server.createContext(DIFF_PATH, this::handleDiff);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the daemon listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Waits until the daemon is closed.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        if (closed.getCount() == 0) {
+            return;
+        }
+        server.stop(0);
+        executor.close();
+        try {
+            snapshotLoader.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close the snapshot loader: " + e.getMessage());
+        }
+        closed.countDown();
+    }
+
+    private void handleDiff(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (snapshotLoader.getAbandonedStages().get() > 0) {
+                // the comparisons abandoned once their timeout was reached still hold their thread and memory
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            final String[] args = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).split(ARGUMENT_SEPARATOR, -1);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final int exitCode;
+            try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+                exitCode = FlowDiffMain.execute(args, out, snapshotLoader, this::readRules);
+            } catch (IOException | RuntimeException e) {
+                final byte[] error = String.valueOf(e).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(500, error.length);
+                exchange.getResponseBody().write(error);
+                return;
+            }
+
+            final byte[] response = output.toByteArray();
+            exchange.getResponseHeaders().set("Content-Type", "text/markdown; charset=utf-8");
+            exchange.getResponseHeaders().set(EXIT_CODE_HEADER, String.valueOf(exitCode));
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+        }
+    }
+
+    // a configuration is read again once its file is modified
+    private CheckstyleRulesConfig readRules(final String path) throws IOException {
+        final Path file = Path.of(path).toAbsolutePath().normalize();
+        final FileTime lastModified = Files.getLastModifiedTime(file);
+        final long size = Files.size(file);
+        synchronized (rulesCache) {
+            final CachedRules cached = rulesCache.get(file);
+            if (cached != null && cached.lastModified().equals(lastModified) && cached.size() == size) {
+                return cached.rulesConfig();
+            }
+        }
+
+        final CheckstyleRulesConfig rulesConfig = CheckstyleRulesReader.fromFile(path);
+        if (rulesConfig != null) {
+            synchronized (rulesCache) {
+                rulesCache.put(file, new CachedRules(lastModified, size, rulesConfig));
+            }
+        }
+        return rulesConfig;
+    }
+
+    private record CachedRules(FileTime lastModified, long size, CheckstyleRulesConfig rulesConfig) {
+    }
+}
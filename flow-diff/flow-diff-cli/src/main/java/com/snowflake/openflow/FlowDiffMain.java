@@ -0,0 +1,294 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesReader;
+import com.snowflake.openflow.github.GitHubClient;
+import com.snowflake.openflow.snapshot.FlowTreeIndex;
+import com.snowflake.openflow.snapshot.FlowTreeIndex.FlowFile;
+import com.snowflake.openflow.snapshot.FlowTreeIndex.TreeComparison;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line of the GitHub Action: compares the flows given as arguments with {@link FlowDiff},
+ * or forwards them to a {@link FlowDiffDaemon}, and publishes the report as a comment of the pull request.
+ */
+public class FlowDiffMain {
+
+    static final int RETURN_SUCCESS = 0;
+    static final int RETURN_FAILURE = 1;
+    static final int RETURN_CHECKSTYLE_VIOLATIONS = 2;
+
+    public static void main(String[] args) throws IOException {
+        final int exitCode = run(args);
+        System.exit(exitCode);
+    }
+
+    static int run(final String[] args) throws IOException {
+        // Arguments match the order from action.yml:
+        // args[0] = flowA
+        // args[1] = flowB
+        // (flowA and flowB can also be two directories, their flows are paired by flow identifier, see FlowTreeIndex)
+        // args[2] = token
+        // args[3] = repository
+        // args[4] = issuenumber
+        // args[5] = checkstyle
+        // args[6] = checkstyle-rules
+        // args[7] = checkstyle-fail
+        // followed by optional named options:
+        // --parallelism=<n> = number of flows compared concurrently (defaults to 1)
+        // --heap-fraction=<0..1> = fraction of the maximum heap the flows compared concurrently are estimated to use, 0 to disable (defaults to 0.75)
+        // --semantic-load=<true|false> = skip layout-only fields while parsing (defaults to false)
+        // --deduplicate-load=<true|false> = share the identical values of both versions of a flow in memory (defaults to false)
+        // --cache-dir=<path> = directory of the on-disk cache of parsed snapshots (disabled by default)
+        // --cache-max-size=<MB> = maximum size of the snapshot cache (defaults to 512)
+        // --prune-unchanged-groups=<true|false> = only compare the process groups containing a change (defaults to false)
+        // --cache-results=<true|false> = reuse the reports of the flows compared by a previous run, requires --cache-dir (defaults to false)
+        // --summary-threshold=<n> = number of changes of a flow above which the identical changes of several components are listed together, 0 to disable (defaults to 500)
+        // --diff-context=<n> = number of unchanged lines around the changes of multiline values, -1 to print both values in full (defaults to 3)
+        // --flow-timeout=<ms> = time budget of each flow, its report is truncated once exhausted (disabled by default)
+        // --run-timeout=<ms> = time budget of all the flows, their reports are truncated once exhausted (disabled by default)
+        // --versioned-strategy=<deep|shallow> = compare the contents of the versioned child groups or only their coordinates (defaults to deep)
+        // --versioned-flow-changes=<true|false> = with the shallow strategy, list the changes between both versions of a versioned child group (defaults to false)
+        // --shared-subflows=<true|false> = list the changes of the versioned child groups once for all the flows having the same change (defaults to false)
+        // --git-objects=<true|false> = read the <rev>:<path> flows from the object database of the git repository of the working directory (defaults to false)
+        // --history=<directory|paths> = compare consecutive versions of a flow instead of flowA and flowB, see FlowHistory (disabled by default)
+        // --memory-cache-size=<MB> = maximum size of the parsed snapshots kept in memory (defaults to 0, and to 256 with --serve)
+        // --serve=<port> = run as a daemon comparing the flows of the runs forwarded to it, see FlowDiffDaemon (disabled by default)
+        // --daemon=<[host:]port> = forward the comparison to a daemon, compared locally if it is not reachable (disabled by default)
+        // --watch=<true|false> = compare the flows again each time their files are saved, until the process is stopped, see FlowWatcher (defaults to false)
+        // --train=<true|false> = compare the flows bundled in the jar instead of the arguments, to record the class data sharing archive, see FlowDiffTraining (defaults to false)
+
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(args);
+        if (options.isTrain()) {
+            return FlowDiffTraining.run(System.out);
+        }
+        if (options.getServePort() >= 0) {
+            return serve(options);
+        }
+        final String[] positional = FlowDiffOptions.positionalArguments(args);
+        if (options.isWatch()) {
+            return watch(args, positional, options);
+        }
+
+        // GitHub API parameters (optional - if not provided, output goes to stdout only)
+        final String githubToken = positional.length > 2 && positional[2] != null && !positional[2].isEmpty() ? positional[2] : null;
+        final String githubRepository = positional.length > 3 && positional[3] != null && !positional[3].isEmpty() ? positional[3] : null;
+        final String githubIssueNumber = positional.length > 4 && positional[4] != null && !positional[4].isEmpty() ? positional[4] : null;
+        final boolean publish = githubToken != null && githubRepository != null && githubIssueNumber != null;
+
+        // Capture output to a string if we need to post to GitHub
+        final ByteArrayOutputStream outputCapture = new ByteArrayOutputStream();
+        final PrintStream out = publish ? new PrintStream(outputCapture, true, StandardCharsets.UTF_8) : System.out;
+
+        int exitCode = -1;
+        if (options.getDaemonAddress() != null && !FlowDiffClient.isForwardable(args)) {
+            System.err.println("The flows given as git revisions are read from the repository of this process, they are compared by this process");
+        } else if (options.getDaemonAddress() != null) {
+            try {
+                exitCode = FlowDiffClient.forward(options.getDaemonAddress(), args, out);
+                if (exitCode < 0) {
+                    System.err.println("The Flow Diff daemon is still running abandoned comparisons, the flows are compared by this process");
+                }
+            } catch (ConnectException e) {
+                System.err.println("The Flow Diff daemon is not reachable at " + options.getDaemonAddress() + ", the flows are compared by this process");
+            }
+        }
+        if (exitCode < 0) {
+            exitCode = execute(args, out, null, CheckstyleRulesReader::fromFile);
+        }
+
+        // Post to GitHub if credentials are provided
+        if (publish) {
+            final String output = outputCapture.toString(StandardCharsets.UTF_8);
+
+            // Also print to stdout for logging
+            System.out.println(output);
+
+            if (exitCode != RETURN_FAILURE) {
+                // Post the new comment first, then delete old ones (safer: if posting fails, old comments remain)
+                final GitHubClient gitHubClient = new GitHubClient(githubToken, githubRepository, githubIssueNumber);
+                final boolean postSuccess = gitHubClient.postComment(output);
+                if (postSuccess) {
+                    gitHubClient.deletePreviousComments();
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Writes the report of the flows given as arguments.
+     *
+     * @param args the arguments of the run, see {@link #run(String[])}
+     * @param out the stream the report is written to
+     * @param snapshotLoader the loader shared by several runs, null to create one for this run
+     * @param rulesReader the reader of the checkstyle configuration
+     * @return the exit code of the run
+     */
+    static int execute(final String[] args, final PrintStream out, final SnapshotLoader snapshotLoader,
+            final RulesReader rulesReader) throws IOException {
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(args);
+        final String[] positional = FlowDiffOptions.positionalArguments(args);
+
+        // flowA and flowB are not used in history mode
+        final List<String> pathsA = positional.length > 0 ? List.of(positional[0].split(",")).stream().map(String::trim).toList() : List.of();
+        final List<String> pathsB = positional.length > 1 ? List.of(positional[1].split(",")).stream().map(String::trim).toList() : List.of();
+
+        final boolean checkstyleEnabled = positional.length > 5 && positional[5] != null && !positional[5].isEmpty()
+                ? Boolean.parseBoolean(positional[5])
+                : false;
+        final CheckstyleRulesConfig rulesConfig = positional.length > 6 && positional[6] != null && !positional[6].isEmpty()
+                ? rulesReader.read(positional[6])
+                : null;
+        final boolean failOnCheckstyleViolations = positional.length > 7 && positional[7] != null && !positional[7].isEmpty()
+                ? Boolean.parseBoolean(positional[7])
+                : false;
+
+        out.println("> [!NOTE]");
+        out.println("> This GitHub Action is created and maintained by [Snowflake](https://www.snowflake.com/).");
+        out.println("");
+
+        final List<Path> versions = options.getHistory() == null ? null : FlowHistory.versions(options.getHistory());
+        final TreeComparison tree = versions == null && FlowDiff.isDirectoryPair(pathsA, pathsB)
+                ? FlowTreeIndex.compare(Path.of(pathsA.getFirst()), Path.of(pathsB.getFirst()),
+                        Math.max(options.getParallelism(), Runtime.getRuntime().availableProcessors()))
+                : null;
+        if (versions != null) {
+            out.println("Identified " + versions.size() + " versions of the flow in the history.");
+        } else if (tree != null) {
+            out.println("Identified " + tree.pathsB().size() + " changed flows in this Pull Request (" + tree.added() + " added, "
+                    + tree.removed().size() + " removed, " + tree.unchanged() + " unchanged).");
+            for (FlowFile removed : tree.removed()) {
+                out.println("- Removed flow: `" + removed.relativePath() + "`");
+            }
+        } else if (pathsA.size() != pathsB.size()) {
+            out.println("The action didn't properly identify the files to compare. Please check the input files.");
+            return RETURN_FAILURE;
+        } else {
+            out.println("Identified " + pathsA.size() + " changed flows in this Pull Request.");
+        }
+
+        boolean hasBlockingCheckstyleViolations = false;
+
+        if (options.getHistory() != null) {
+            // each diff is written as soon as it is computed
+            hasBlockingCheckstyleViolations = snapshotLoader == null
+                    ? FlowHistory.execute(versions, checkstyleEnabled, rulesConfig, options, out)
+                    : FlowHistory.execute(versions, checkstyleEnabled, rulesConfig, options, out, snapshotLoader);
+        } else {
+            HeapAdmission.resetPeakHeap();
+            final List<String> comparedA = tree != null ? tree.pathsA() : pathsA;
+            final List<String> comparedB = tree != null ? tree.pathsB() : pathsB;
+            final List<FlowDiffContext> contexts = snapshotLoader == null
+                    ? FlowDiff.executeFlowDiffs(comparedA, comparedB, checkstyleEnabled, rulesConfig, options)
+                    : FlowDiff.executeFlowDiffs(comparedA, comparedB, checkstyleEnabled, rulesConfig, options, snapshotLoader);
+            for (FlowDiffContext context : contexts) {
+                out.println("");
+                out.print(context.getOutput());
+                hasBlockingCheckstyleViolations = hasBlockingCheckstyleViolations || context.hasCheckstyleViolations();
+            }
+            FlowDiff.printSharedChanges(out, contexts);
+
+            if (options.getCacheDirectory() != null && options.isCacheResults()) {
+                final long hits = contexts.stream().filter(FlowDiffContext::isResultReused).count();
+                out.println("");
+                out.println("_Result store: " + hits + " hits, " + (contexts.size() - hits) + " misses_");
+            }
+
+            if (options.getParallelism() > 1 && options.getHeapFraction() > 0 && contexts.size() > 1) {
+                final long maxWait = contexts.stream().mapToLong(FlowDiffContext::getQueueWaitMillis).max().orElse(0);
+                final long totalWait = contexts.stream().mapToLong(FlowDiffContext::getQueueWaitMillis).sum();
+                out.println("");
+                out.println("_Heap: peak " + toMegabytes(HeapAdmission.peakHeapBytes()) + " MB of " + toMegabytes(Runtime.getRuntime().maxMemory())
+                        + " MB, queue wait: max " + maxWait + " ms, total " + totalWait + " ms_");
+            }
+        }
+
+        if (checkstyleEnabled && failOnCheckstyleViolations && hasBlockingCheckstyleViolations) {
+            return RETURN_CHECKSTYLE_VIOLATIONS;
+        }
+
+        return RETURN_SUCCESS;
+    }
+
+    private static int serve(final FlowDiffOptions options) throws IOException {
+        final FlowDiffDaemon daemon = new FlowDiffDaemon(options);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close));
+        daemon.start();
+        System.out.println("Flow Diff daemon listening on port " + daemon.getPort());
+        try {
+            daemon.awaitClose();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return RETURN_SUCCESS;
+    }
+
+    private static int watch(final String[] args, final String[] positional, final FlowDiffOptions options) throws IOException {
+        final List<String> pathsA = positional.length > 0 ? List.of(positional[0].split(",")).stream().map(String::trim).toList() : List.of();
+        final List<String> pathsB = positional.length > 1 ? List.of(positional[1].split(",")).stream().map(String::trim).toList() : List.of();
+        if (pathsA.isEmpty() || pathsA.size() != pathsB.size() || options.isGitObjects() || FlowDiff.isDirectoryPair(pathsA, pathsB)) {
+            System.out.println("The watch mode compares pairs of flow files, please check the input files.");
+            return RETURN_FAILURE;
+        }
+        final boolean checkstyleEnabled = positional.length > 5 && positional[5] != null && !positional[5].isEmpty() && Boolean.parseBoolean(positional[5]);
+        final String rulesPath = positional.length > 6 && positional[6] != null && !positional[6].isEmpty() ? positional[6] : null;
+
+        // an edit usually touches a few process groups only
+        if (Arrays.stream(args).noneMatch(arg -> arg.startsWith("--prune-unchanged-groups="))) {
+            options.setPruneUnchangedGroups(true);
+        }
+
+        final FlowWatcher watcher = new FlowWatcher(pathsA, pathsB, checkstyleEnabled, rulesPath, CheckstyleRulesReader::fromFile, options, System.out);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // exiting anyway
+            }
+        }));
+        try {
+            watcher.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return RETURN_SUCCESS;
+    }
+
+    private static long toMegabytes(final long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * Reads the checkstyle configuration of a run.
+     */
+    interface RulesReader {
+        CheckstyleRulesConfig read(String path) throws IOException;
+    }
+}
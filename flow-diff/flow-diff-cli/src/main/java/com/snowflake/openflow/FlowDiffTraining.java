@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleRulesReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Training run of the class data sharing archive of the image: parses, compares, checks and renders
+ * the flows bundled in the jar, so that the classes of a typical run are loaded once at build time
+ * and mapped from the archive at startup instead of being loaded from the jar.
+ */
+final class FlowDiffTraining {
+
+    private static final String RESOURCES = "/training/";
+    private static final List<String> FLOWS_A = List.of("flow_v5_property_parameter.json", "flow_nested_v1.json");
+    private static final List<String> FLOWS_B = List.of("flow_v6_parameter_value.json", "flow_nested_v2.json");
+    private static final String RULES = "checkstyle_limit1.yaml";
+
+    private FlowDiffTraining() {
+    }
+
+    /**
+     * @param out the stream the duration of the training run is written to, the reports are discarded
+     * @return the exit code of the training run
+     */
+    static int run(final PrintStream out) throws IOException {
+        final long start = System.nanoTime();
+        final Path directory = Files.createTempDirectory("flow-diff-training");
+        try {
+            final String pathsA = String.join(",", extract(directory, FLOWS_A));
+            final String pathsB = String.join(",", extract(directory, FLOWS_B));
+            final String rules = extract(directory, List.of(RULES)).getFirst();
+            final PrintStream discarded = new PrintStream(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8);
+
+            // one sequential and one parallel run, with the options of the action
+            for (String parallelism : List.of("--parallelism=1", "--parallelism=2")) {
+                final int exitCode = FlowDiffMain.execute(new String[] {pathsA, pathsB, "", "", "", "true", rules, "true", parallelism},
+                        discarded, null, CheckstyleRulesReader::fromFile);
+                if (exitCode == FlowDiffMain.RETURN_FAILURE) {
+                    return exitCode;
+                }
+            }
+        } finally {
+            delete(directory);
+        }
+        out.println("Training run completed in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return FlowDiffMain.RETURN_SUCCESS;
+    }
+
+    private static List<String> extract(final Path directory, final List<String> names) throws IOException {
+        for (String name : names) {
+            try (InputStream in = FlowDiffTraining.class.getResourceAsStream(RESOURCES + name)) {
+                if (in == null) {
+                    throw new IOException("The training flow " + name + " is missing from the jar");
+                }
+                Files.copy(in, directory.resolve(name));
+            }
+        }
+        return names.stream().map(name -> directory.resolve(name).toString()).toList();
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
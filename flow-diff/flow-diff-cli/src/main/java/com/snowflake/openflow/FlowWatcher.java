@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleCache;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.snowflake.openflow.snapshot.SnapshotLoader.SnapshotPair;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch mode: compares the flows again each time one of their files, or the checkstyle configuration, is
+ * saved. The snapshots stay parsed between two comparisons so that only the saved files are parsed again,
+ * and the checkstyle rules evaluated group by group only run on the process groups that changed.
+ */
+final class FlowWatcher implements Closeable {
+
+    /**
+     * Time without file events after which the flows are compared, editors saving a file in several steps.
+     */
+    static final long DEBOUNCE_MILLIS = 200;
+
+    private final List<WatchedFlow> flows = new ArrayList<>();
+    private final boolean checkstyleEnabled;
+    private final Path rulesPath;
+    private final FlowDiffMain.RulesReader rulesReader;
+    private final FlowDiffOptions options;
+    private final SnapshotLoader snapshotLoader;
+    private final PrintStream out;
+    private final WatchService watchService;
+    private CheckstyleRulesConfig rulesConfig;
+
+    /**
+     * @param pathsA the paths of the original flows
+     * @param pathsB the paths of the new flows, in the same order
+     * @param rulesPath the path of the checkstyle configuration, null for the default rules
+     */
+    FlowWatcher(final List<String> pathsA, final List<String> pathsB, final boolean checkstyleEnabled, final String rulesPath,
+            final FlowDiffMain.RulesReader rulesReader, final FlowDiffOptions options, final PrintStream out) throws IOException {
+        for (int i = 0; i < pathsA.size(); i++) {
+            flows.add(new WatchedFlow(absolute(pathsA.get(i)), absolute(pathsB.get(i))));
+        }
+        this.checkstyleEnabled = checkstyleEnabled;
+        this.rulesPath = rulesPath == null ? null : absolute(rulesPath);
+        this.rulesReader = rulesReader;
+        this.options = options;
+        this.snapshotLoader = FlowDiff.createSnapshotLoader(options);
+        this.out = out;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        final Set<Path> directories = new HashSet<>();
+        for (WatchedFlow flow : flows) {
+            directories.add(flow.pathA.getParent());
+            directories.add(flow.pathB.getParent());
+        }
+        if (this.rulesPath != null) {
+            directories.add(this.rulesPath.getParent());
+        }
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        }
+    }
+
+    /**
+     * Compares the flows, then compares them again on each change until the watcher is closed.
+     */
+    void run() throws IOException, InterruptedException {
+        rulesConfig = rulesPath == null ? null : rulesReader.read(rulesPath.toString());
+        out.println("Watching " + flows.size() + " flows for changes.");
+        for (WatchedFlow flow : flows) {
+            refresh(flow, true, true);
+        }
+
+        try {
+            while (true) {
+                final Set<Path> changed = new HashSet<>();
+                WatchKey key = watchService.take();
+                boolean overflow = collect(key, changed);
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow = collect(key, changed) || overflow;
+                }
+
+                final boolean rulesChanged = rulesPath != null && (overflow || changed.contains(rulesPath));
+                if (rulesChanged) {
+                    try {
+                        rulesConfig = rulesReader.read(rulesPath.toString());
+                    } catch (IOException e) {
+                        out.println("");
+                        out.println("The checkstyle configuration `" + rulesPath + "` can not be read, the previous one is used: " + e.getMessage());
+                    }
+                }
+                for (WatchedFlow flow : flows) {
+                    // the snapshots were scoped in place by the previous configuration, a wider scope needs them whole
+                    final boolean changedA = rulesChanged || overflow || changed.contains(flow.pathA);
+                    final boolean changedB = rulesChanged || overflow || changed.contains(flow.pathB);
+                    if (changedA || changedB) {
+                        refresh(flow, changedA, changedB);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed by close()
+        }
+    }
+
+    private boolean collect(final WatchKey key, final Set<Path> changed) {
+        boolean overflow = false;
+        final Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private void refresh(final WatchedFlow flow, final boolean reloadA, final boolean reloadB) throws IOException {
+        final long start = System.nanoTime();
+        if (reloadA) {
+            // no original flow when it does not exist (yet)
+            flow.snapshotA = Files.isRegularFile(flow.pathA) ? loadOrNull(flow.pathA) : null;
+        }
+        if (reloadB) {
+            try {
+                flow.snapshotB = snapshotLoader.load(flow.pathB);
+            } catch (IOException | RuntimeException e) {
+                // most likely saved while being edited, the next save triggers another comparison
+                out.println("");
+                out.println("`" + flow.pathB + "` can not be parsed: " + e.getMessage());
+                out.flush();
+                return;
+            }
+        }
+        if (flow.snapshotB == null) {
+            return;
+        }
+
+        final FlowDiffContext context = new FlowDiffContext(options, snapshotLoader);
+        context.setDeadline(Deadline.after(options.getFlowTimeoutMillis(), snapshotLoader.getAbandonedStages()));
+        context.setCheckstyleCache(flow.checkstyleCache);
+        final SnapshotPair snapshots = new SnapshotPair(flow.snapshotA, flow.snapshotB);
+        FlowDiff.executeFlowDiffForOneFlow(context, "`" + flow.pathB + "`", () -> snapshots, checkstyleEnabled, rulesConfig);
+
+        out.println("");
+        out.println("---");
+        out.println("");
+        out.print(context.getOutput());
+        FlowDiff.printSharedChanges(out, List.of(context));
+        out.println("");
+        out.println("_Compared in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms_");
+        out.flush();
+    }
+
+    private FlowSnapshotContainer loadOrNull(final Path path) {
+        try {
+            return snapshotLoader.load(path);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Path absolute(final String path) {
+        return Path.of(path).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        snapshotLoader.close();
+    }
+
+    private static final class WatchedFlow {
+        private final Path pathA;
+        private final Path pathB;
+        private final CheckstyleCache checkstyleCache = new CheckstyleCache();
+        private FlowSnapshotContainer snapshotA;
+        private FlowSnapshotContainer snapshotB;
+
+        private WatchedFlow(final Path pathA, final Path pathB) {
+            this.pathA = pathA;
+            this.pathB = pathB;
+        }
+    }
+}
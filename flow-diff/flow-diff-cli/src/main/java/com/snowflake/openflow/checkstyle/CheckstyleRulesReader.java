@@ -21,13 +21,15 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
-public record CheckstyleRulesConfig(
-        List<String> include,
-        List<String> exclude,
-        Map<String, RuleConfig> rules) {
+/**
+ * Reads the YAML checkstyle configuration given to the action, the core module only deals with
+ * the parsed {@link CheckstyleRulesConfig}.
+ */
+public final class CheckstyleRulesReader {
+
+    private CheckstyleRulesReader() {
+    }
 
     public static CheckstyleRulesConfig fromFile(String path) throws IOException {
         try {
@@ -39,26 +41,4 @@ public record CheckstyleRulesConfig(
             return null;
         }
     }
-
-    public record RuleConfig(
-            Map<String, Object> parameters,
-            Map<String, Map<String, Object>> overrides,
-            List<String> exclude,
-            Map<String, List<String>> componentExclusions) {
-
-        public boolean isComponentExcluded(final String flowName, final String componentId) {
-            if (componentId == null || componentExclusions == null || componentExclusions.isEmpty()) {
-                return false;
-            }
-
-            if (flowName == null || flowName.isEmpty()) {
-                return componentExclusions.containsKey(".*") && componentExclusions.get(".*") != null
-                        && componentExclusions.get(".*").contains(componentId);
-            }
-
-            return componentExclusions.entrySet().stream()
-                    .filter(entry -> entry.getKey() != null && flowName.matches(entry.getKey()))
-                    .anyMatch(entry -> entry.getValue() != null && entry.getValue().contains(componentId));
-        }
-    }
 }
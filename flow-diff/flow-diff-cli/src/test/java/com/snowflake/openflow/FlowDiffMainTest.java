@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleRulesReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowDiffMainTest {
+
+    // the flows of the tests are shared with the core module
+    private static final String RESOURCES = "../flow-diff-core/src/test/resources/";
+
+    @Test
+    void testMain() throws IOException {
+        // Arguments: flowA, flowB, token, repository, issuenumber, checkstyle, checkstyle-rules, checkstyle-fail
+        final int exitCode = FlowDiffMain.run(new String[] {
+                RESOURCES + "flow_v3_config_changes.json," + RESOURCES + "flow_v5_property_parameter.json",
+                RESOURCES + "flow_v4_parameters.json," + RESOURCES + "flow_v6_parameter_value.json",
+                "", "", "",  // no GitHub API
+                "true" });
+        assertEquals(0, exitCode);
+    }
+
+    @Test
+    void testCheckstyleFailExitCode() throws IOException {
+        // Arguments: flowA, flowB, token, repository, issuenumber, checkstyle, checkstyle-rules, checkstyle-fail
+        final int exitCode = FlowDiffMain.run(new String[] {
+                RESOURCES + "flow_v6_parameter_value.json",
+                RESOURCES + "flow_v6_parameter_value.json",
+                "", "", "",  // no GitHub API
+                "true",
+                RESOURCES + "checkstyle_limit1.yaml",
+                "true" });
+        assertEquals(2, exitCode);
+    }
+
+    @Test
+    void testDaemon() throws IOException {
+        final String[] args = new String[] {
+                RESOURCES + "flow_v5_property_parameter.json",
+                RESOURCES + "flow_v6_parameter_value.json",
+                "", "", "",  // no GitHub API
+                "true",
+                RESOURCES + "checkstyle_limit1.yaml",
+                "true" };
+        final ByteArrayOutputStream local = new ByteArrayOutputStream();
+        final int localExitCode = FlowDiffMain.execute(args, new PrintStream(local, true, StandardCharsets.UTF_8), null, CheckstyleRulesReader::fromFile);
+
+        final int port;
+        try (FlowDiffDaemon daemon = new FlowDiffDaemon(FlowDiffOptions.fromArguments(new String[] {"--serve=0"}))) {
+            daemon.start();
+            port = daemon.getPort();
+            // the second run reuses the snapshots and the checkstyle configuration of the first one
+            for (int i = 0; i < 2; i++) {
+                final ByteArrayOutputStream forwarded = new ByteArrayOutputStream();
+                final int exitCode = FlowDiffClient.forward(String.valueOf(port), args, new PrintStream(forwarded, true, StandardCharsets.UTF_8));
+                assertEquals(localExitCode, exitCode);
+                assertEquals(local.toString(StandardCharsets.UTF_8), forwarded.toString(StandardCharsets.UTF_8));
+            }
+        }
+
+        // the git revisions of the client are not read from the repository of the daemon
+        assertTrue(FlowDiffClient.isForwardable(args));
+        assertFalse(FlowDiffClient.isForwardable(new String[] {"HEAD~1:flow.json", "HEAD:flow.json", "", "", "", "true", "--git-objects=true"}));
+        assertTrue(FlowDiffClient.forwardedArguments(new String[] {"a.json", "b.json", "--cache-dir=cache"})
+                .contains("--cache-dir=" + Path.of("cache").toAbsolutePath()));
+
+        // the run is compared locally once the daemon is gone
+        final String[] withDaemon = Arrays.copyOf(args, args.length + 1);
+        withDaemon[args.length] = "--daemon=" + port;
+        assertEquals(2, FlowDiffMain.run(withDaemon));
+    }
+
+    @Test
+    void testWatch(@TempDir final Path directory) throws Exception {
+        final Path flowA = directory.resolve("flow_a.json");
+        final Path flowB = directory.resolve("flow_b.json");
+        final Path rules = directory.resolve("rules.yaml");
+        Files.copy(Path.of(RESOURCES + "flow_nested_v1.json"), flowA);
+        Files.copy(Path.of(RESOURCES + "flow_nested_v1.json"), flowB);
+        // the checkstyle configuration only includes the Transform group
+        Files.copy(Path.of(RESOURCES + "checkstyle_scope.yaml"), rules);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final FlowWatcher watcher = new FlowWatcher(List.of(flowA.toString()), List.of(flowB.toString()), true, rules.toString(),
+                CheckstyleRulesReader::fromFile, FlowDiffOptions.fromArguments(new String[] {"--prune-unchanged-groups=true"}),
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+        final Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                watcher.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        try {
+            awaitReports(output, 1);
+            Files.copy(Path.of(RESOURCES + "flow_nested_v2.json"), flowB, StandardCopyOption.REPLACE_EXISTING);
+            awaitReports(output, 2);
+            // the groups left out by the previous scope are compared again
+            Files.copy(Path.of(RESOURCES + "checkstyle_limit1.yaml"), rules, StandardCopyOption.REPLACE_EXISTING);
+            awaitReports(output, 3);
+        } finally {
+            watcher.close();
+            thread.join(10_000);
+        }
+
+        final String[] reports = output.toString(StandardCharsets.UTF_8).split("\n---\n");
+        assertEquals(4, reports.length);
+        assertNotEquals(reports[1], reports[2]);
+        assertFalse(reports[2].contains("`Shared Library`"));
+        assertTrue(reports[3].contains("`Shared Library`"));
+        assertTrue(reports[3].contains("concurrent tasks"));
+    }
+
+    @Test
+    void testTraining() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(0, FlowDiffTraining.run(new PrintStream(output, true, StandardCharsets.UTF_8)));
+        assertTrue(output.toString(StandardCharsets.UTF_8).startsWith("Training run completed in "));
+    }
+
+    private static void awaitReports(final ByteArrayOutputStream output, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (output.toString(StandardCharsets.UTF_8).split("_Compared in ", -1).length <= count) {
+            assertTrue(System.currentTimeMillis() < deadline, "No report after 10 seconds");
+            Thread.sleep(50);
+        }
+    }
+}
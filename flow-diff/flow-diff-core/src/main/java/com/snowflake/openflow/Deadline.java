@@ -0,0 +1,212 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time budget of the comparison of a flow. The stages of the comparison either check the
+ * deadline between two steps or, when they cannot be interrupted, run in a separate thread that
+ * is abandoned once the deadline is reached, so that a report of the completed stages can always
+ * be published.
+ * <p>
+ * An abandoned stage keeps its thread until the parse or comparison of NiFi it is waiting for
+ * returns, the stages only stop at the next process group. Such threads are counted by the
+ * counter given to {@link #after(long, AtomicInteger)}, usually the one of the {@code SnapshotLoader}
+ * shared by the comparisons of an engine.
+ */
+public final class Deadline {
+
+    /**
+     * The stages of the comparison of a flow.
+     */
+    public enum Stage {
+        PARSE("parse"),
+        COMPARE("compare"),
+        CHECKSTYLE("checkstyle"),
+        RENDER("render");
+
+        private final String displayName;
+
+        Stage(final String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final int RUNNING = 0;
+    private static final int ABANDONED = 1;
+    private static final int DONE = 2;
+
+    private final long startNanos;
+    // Long.MAX_VALUE when the deadline is not bounded
+    private final long expiryNanos;
+    // null when the abandoned stages are not counted
+    private final AtomicInteger abandonedStages;
+
+    private Deadline(final long startNanos, final long expiryNanos, final AtomicInteger abandonedStages) {
+        this.startNanos = startNanos;
+        this.expiryNanos = expiryNanos;
+        this.abandonedStages = abandonedStages;
+    }
+
+    /**
+     * @return a deadline that is never reached
+     */
+    public static Deadline none() {
+        return new Deadline(System.nanoTime(), Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param millis the time budget in milliseconds, zero or less for no budget
+     * @return a deadline reached after the given time from now
+     */
+    public static Deadline after(final long millis) {
+        return after(millis, null);
+    }
+
+    /**
+     * @param millis the time budget in milliseconds, zero or less for no budget
+     * @param abandonedStages the counter of the abandoned stages whose thread is still running, null to not count them
+     * @return a deadline reached after the given time from now
+     */
+    public static Deadline after(final long millis, final AtomicInteger abandonedStages) {
+        final long now = System.nanoTime();
+        return new Deadline(now, millis <= 0 ? Long.MAX_VALUE : now + TimeUnit.MILLISECONDS.toNanos(millis), abandonedStages);
+    }
+
+    /**
+     * @param other another deadline, for instance the one of the whole run
+     * @return a deadline starting with this one and reached when the first of both deadlines is reached
+     */
+    public Deadline within(final Deadline other) {
+        if (other.expiryNanos == Long.MAX_VALUE || (expiryNanos != Long.MAX_VALUE && expiryNanos - other.expiryNanos <= 0)) {
+            return this;
+        }
+        return new Deadline(startNanos, other.expiryNanos, abandonedStages);
+    }
+
+    public boolean isBounded() {
+        return expiryNanos != Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - expiryNanos >= 0;
+    }
+
+    /**
+     * @return the time elapsed since the start of this deadline
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param stage the stage being executed
+     * @throws DeadlineExceededException if the deadline is reached
+     */
+    public void check(final Stage stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage, elapsedMillis());
+        }
+    }
+
+    /**
+     * Stops a stage running in a thread abandoned by {@link #call(Stage, Callable)}, to be called
+     * between two steps of the stage such as two process groups.
+     *
+     * @param stage the stage being executed
+     * @throws CancellationException if the thread was interrupted
+     */
+    static void checkInterrupted(final Stage stage) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The " + stage.getDisplayName() + " stage was abandoned");
+        }
+    }
+
+    /**
+     * Executes a stage that cannot check the deadline by itself. When the deadline is bounded, the
+     * stage runs in a daemon thread which is interrupted and abandoned if the deadline is reached.
+     * The stage should call {@link #checkInterrupted(Stage)} wherever it can stop.
+     *
+     * @param stage the stage being executed
+     * @param task the work of the stage
+     * @return the result of the task
+     * @throws DeadlineExceededException if the deadline is reached before the task completes
+     * @throws IOException if the task fails with an I/O error
+     */
+    public <T> T call(final Stage stage, final Callable<T> task) throws IOException {
+        check(stage);
+        if (!isBounded()) {
+            try {
+                return task.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to execute the " + stage.getDisplayName() + " stage", e);
+            }
+        }
+
+        final FutureTask<T> future = new FutureTask<>(task);
+        final AtomicInteger state = new AtomicInteger(RUNNING);
+        Thread.ofPlatform().daemon().name("flow-diff-" + stage.getDisplayName()).start(() -> {
+            try {
+                future.run();
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    abandonedStages.decrementAndGet();
+                }
+            }
+        });
+        try {
+            return future.get(Math.max(0, expiryNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, state);
+            throw new DeadlineExceededException(stage, elapsedMillis());
+        } catch (InterruptedException e) {
+            abandon(future, state);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while executing the " + stage.getDisplayName() + " stage", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            } else if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Failed to execute the " + stage.getDisplayName() + " stage", e.getCause());
+        }
+    }
+
+    private void abandon(final FutureTask<?> future, final AtomicInteger state) {
+        future.cancel(true);
+        if (abandonedStages != null && state.compareAndSet(RUNNING, ABANDONED)) {
+            abandonedStages.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.Deadline.Stage;
+
+/**
+ * Thrown when the time budget of a flow is exhausted, the report then only contains the stages
+ * completed before the given stage.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final Stage stage;
+    private final long elapsedMillis;
+
+    public DeadlineExceededException(final Stage stage, final long elapsedMillis) {
+        super("Truncated after " + elapsedMillis + " ms in stage " + stage.getDisplayName());
+        this.stage = stage;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.Deadline.Stage;
+import com.snowflake.openflow.checkstyle.CheckstyleCache;
+import com.snowflake.openflow.checkstyle.CheckstyleRule;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig.RuleConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleViolation;
+import com.snowflake.openflow.checkstyle.DefaultCheckstyleRules;
+import com.snowflake.openflow.snapshot.ProcessGroupPruner;
+import com.snowflake.openflow.snapshot.SnapshotHasher;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class FlowCheckstyle {
+
+    public static final List<String> DEFAULT_CHECKSTYLE_RULES = Arrays.stream(DefaultCheckstyleRules.values()).map(DefaultCheckstyleRules::id).toList();
+
+    public static List<String> getCheckstyleViolations(final FlowSnapshotContainer flowSnapshotContainer, final String flowName, final CheckstyleRulesConfig config) {
+        return getViolations(flowSnapshotContainer, flowName, config).stream().map(CheckstyleViolation::message).toList();
+    }
+
+    /**
+     * @return the violations of the flow, in the order of the rules
+     */
+    public static List<CheckstyleViolation> getViolations(final FlowSnapshotContainer flowSnapshotContainer, final String flowName, final CheckstyleRulesConfig config) {
+        return getViolations(flowSnapshotContainer, flowName, config, null);
+    }
+
+    /**
+     * @param cache the violations of the previous evaluations of the flow, null to evaluate all the rules on the whole flow
+     * @return the violations of the flow, in the order of the rules
+     */
+    public static List<CheckstyleViolation> getViolations(final FlowSnapshotContainer flowSnapshotContainer, final String flowName, final CheckstyleRulesConfig config,
+            final CheckstyleCache cache) {
+        final List<CheckstyleViolation> violations = new ArrayList<>();
+        final List<String> includes = config == null || config.include() == null ? DEFAULT_CHECKSTYLE_RULES : config.include();
+        final List<String> excludes = config == null || config.exclude() == null || config.include() != null ? List.of() : config.exclude();
+
+        final Map<String, String> hashes = cache == null ? null : SnapshotHasher.hash(flowSnapshotContainer.getFlowSnapshot()).processGroupHashes();
+        if (cache != null) {
+            cache.begin(flowName, config);
+        }
+
+        Arrays.stream(DefaultCheckstyleRules.values())
+                .filter(rule -> rule.ruleApplies(includes, excludes, config, flowName))
+                .forEach(rule -> {
+                    Deadline.checkInterrupted(Stage.CHECKSTYLE);
+                    final RuleConfig ruleConfig = config == null || config.rules() == null ? null : config.rules().get(rule.id());
+                    final List<String> messages = cache != null && rule.implementation().isGroupLocal()
+                            ? checkProcessGroup(rule.id(), rule.implementation(), flowSnapshotContainer.getFlowSnapshot().getFlowContents(), hashes,
+                                    flowName, ruleConfig, cache)
+                            : rule.implementation().check(flowSnapshotContainer, flowName, ruleConfig);
+                    for (String message : messages) {
+                        violations.add(new CheckstyleViolation(rule.id(), message));
+                    }
+                });
+
+        if (cache != null) {
+            cache.end();
+        }
+        return violations;
+    }
+
+    private static List<String> checkProcessGroup(final String ruleId, final CheckstyleRule rule, final VersionedProcessGroup processGroup,
+            final Map<String, String> hashes, final String flowName, final RuleConfig ruleConfig, final CheckstyleCache cache) {
+        Deadline.checkInterrupted(Stage.CHECKSTYLE);
+        final String hash = hashes.get(processGroup.getIdentifier());
+        final String key = ruleId + ":" + processGroup.getIdentifier() + ":" + hash;
+        final List<String> cached = hash == null ? null : cache.get(key);
+        if (cached != null) {
+            keepDescendants(ruleId, processGroup, hashes, cache);
+            return cached;
+        }
+
+        // same order as the rules: the violations of the child groups first
+        final List<String> violations = new ArrayList<>();
+        for (VersionedProcessGroup childGroup : processGroup.getProcessGroups()) {
+            violations.addAll(checkProcessGroup(ruleId, rule, childGroup, hashes, flowName, ruleConfig, cache));
+        }
+        final RegisteredFlowSnapshot groupSnapshot = new RegisteredFlowSnapshot();
+        groupSnapshot.setFlowContents(ProcessGroupPruner.copy(processGroup));
+        violations.addAll(rule.check(new FlowSnapshotContainer(groupSnapshot), flowName, ruleConfig));
+
+        if (hash != null) {
+            cache.put(key, violations);
+        }
+        return violations;
+    }
+
+    private static void keepDescendants(final String ruleId, final VersionedProcessGroup processGroup, final Map<String, String> hashes,
+            final CheckstyleCache cache) {
+        // the descendants of an unchanged group are needed again as soon as one of its siblings changes
+        for (VersionedProcessGroup childGroup : processGroup.getProcessGroups()) {
+            if (cache.keep(ruleId + ":" + childGroup.getIdentifier() + ":" + hashes.get(childGroup.getIdentifier()))) {
+                keepDescendants(ruleId, childGroup, hashes, cache);
+            }
+        }
+    }
+
+}
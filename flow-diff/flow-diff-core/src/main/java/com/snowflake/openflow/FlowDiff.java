@@ -0,0 +1,1204 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.Deadline.Stage;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig.ScopeConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleViolation;
+import com.snowflake.openflow.diff.DifferenceAggregator;
+import com.snowflake.openflow.diff.DifferenceAggregator.DifferenceGroup;
+import com.snowflake.openflow.diff.DifferenceIndex;
+import com.snowflake.openflow.diff.LineDiff;
+import com.snowflake.openflow.diff.SharedSubflows;
+import com.snowflake.openflow.diff.SharedSubflows.SharedChange;
+import com.snowflake.openflow.diff.VersionedFlowChanges;
+import com.snowflake.openflow.snapshot.FlowIndex;
+import com.snowflake.openflow.snapshot.GitObjectReader;
+import com.snowflake.openflow.snapshot.ProcessGroupPruner;
+import com.snowflake.openflow.snapshot.ProcessGroupPruner.PrunedGroups;
+import com.snowflake.openflow.snapshot.ProcessGroupScope;
+import com.snowflake.openflow.snapshot.ResultStore;
+import com.snowflake.openflow.snapshot.ResultStore.StoredResult;
+import com.snowflake.openflow.snapshot.ResultStore.StoredSharedChange;
+import com.snowflake.openflow.snapshot.SnapshotCache;
+import com.snowflake.openflow.snapshot.SnapshotHasher;
+import com.snowflake.openflow.snapshot.SnapshotHasher.FlowHashes;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.snowflake.openflow.snapshot.SnapshotLoader.SnapshotPair;
+import com.snowflake.openflow.snapshot.VersionedGroupCollapser;
+import com.snowflake.openflow.snapshot.VersionedGroupCollapser.CollapsedGroups;
+import com.snowflake.openflow.snapshot.VersionedGroupCollapser.VersionedGroupPair;
+import org.apache.nifi.flow.Bundle;
+import org.apache.nifi.flow.ComponentType;
+import org.apache.nifi.flow.ConnectableComponent;
+import org.apache.nifi.flow.VersionedComponent;
+import org.apache.nifi.flow.VersionedConfigurableExtension;
+import org.apache.nifi.flow.VersionedConnection;
+import org.apache.nifi.flow.VersionedControllerService;
+import org.apache.nifi.flow.VersionedFlowCoordinates;
+import org.apache.nifi.flow.VersionedLabel;
+import org.apache.nifi.flow.VersionedParameter;
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.flow.VersionedProcessor;
+import org.apache.nifi.flow.VersionedPropertyDescriptor;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+import org.apache.nifi.registry.flow.diff.ConciseEvolvingDifferenceDescriptor;
+import org.apache.nifi.registry.flow.diff.DifferenceType;
+import org.apache.nifi.registry.flow.diff.FlowComparator;
+import org.apache.nifi.registry.flow.diff.FlowComparatorVersionedStrategy;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+import org.apache.nifi.registry.flow.diff.StandardComparableDataFlow;
+import org.apache.nifi.registry.flow.diff.StandardFlowComparator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+public class FlowDiff {
+
+    private static final SnapshotLoader SNAPSHOT_LOADER = new SnapshotLoader();
+
+    private static final int SUMMARY_SAMPLE_SIZE = 5;
+
+    private static final Set<DifferenceType> LAYOUT_DIFFERENCE_TYPES = EnumSet.of(DifferenceType.SIZE_CHANGED, DifferenceType.STYLE_CHANGED,
+            DifferenceType.POSITION_CHANGED, DifferenceType.BENDPOINTS_CHANGED, DifferenceType.ZINDEX_CHANGED);
+
+    static void printSharedChanges(final PrintStream out, final List<FlowDiffContext> contexts) {
+        final Map<SharedChange, List<String>> flowNamesByChange = new LinkedHashMap<>();
+        for (FlowDiffContext context : contexts) {
+            for (SharedChange sharedChange : context.getSharedChanges()) {
+                flowNamesByChange.computeIfAbsent(sharedChange, change -> new ArrayList<>()).add(context.getFlowName());
+            }
+        }
+        if (flowNamesByChange.isEmpty()) {
+            return;
+        }
+
+        out.println("");
+        out.println("### Shared Sub-Flow Changes");
+        flowNamesByChange.forEach((sharedChange, flowNames) -> {
+            out.println("");
+            out.println("#### " + sharedChange.getTitle());
+            out.println("Same change applied in " + flowNames.size() + (flowNames.size() == 1 ? " flow: " : " flows: ")
+                    + String.join(", ", flowNames));
+            out.println("");
+            out.print(sharedChange.getReport());
+        });
+    }
+
+    static List<FlowDiffContext> executeFlowDiffs(final List<String> pathsA, final List<String> pathsB, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig, final FlowDiffOptions options) throws IOException {
+        try (SnapshotLoader snapshotLoader = createSnapshotLoader(options)) {
+            return executeFlowDiffs(pathsA, pathsB, checkstyleEnabled, rulesConfig, options, snapshotLoader);
+        }
+    }
+
+    /**
+     * Compares the flows with a loader owned by the caller, such as the one of a daemon serving several runs.
+     */
+    static List<FlowDiffContext> executeFlowDiffs(final List<String> pathsA, final List<String> pathsB, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig, final FlowDiffOptions options, final SnapshotLoader snapshotLoader) throws IOException {
+        final List<FlowDiffContext> contexts = new ArrayList<>();
+        final ResultStore resultStore = createResultStore(options);
+        final int parallelism = options.getParallelism();
+        final Deadline runDeadline = Deadline.after(options.getRunTimeoutMillis());
+        final VersionedFlowChanges versionedFlowChanges = new VersionedFlowChanges();
+        final SharedSubflows sharedSubflows = new SharedSubflows();
+
+        if (parallelism <= 1 || pathsA.size() <= 1) {
+            for (int i = 0; i < pathsA.size(); i++) {
+                final FlowDiffContext context = new FlowDiffContext(options, snapshotLoader);
+                context.setDeadline(Deadline.after(options.getFlowTimeoutMillis(), snapshotLoader.getAbandonedStages()).within(runDeadline));
+                context.setVersionedFlowChanges(versionedFlowChanges);
+                context.setSharedSubflows(sharedSubflows);
+                executeFlowDiffForOneFlow(context, resultStore, pathsA.get(i), pathsB.get(i), checkstyleEnabled, rulesConfig);
+                contexts.add(context);
+            }
+            return contexts;
+        }
+
+        // the pairs are admitted while their estimated heap footprint fits the budget, the largest
+        // ones first so that they do not end up processed alone at the end of the run
+        final HeapAdmission admission = options.getHeapFraction() > 0 ? HeapAdmission.forHeapFraction(options.getHeapFraction()) : null;
+        final long[] estimates = new long[pathsA.size()];
+        for (int i = 0; i < pathsA.size(); i++) {
+            estimates[i] = admission == null ? 0 : HeapAdmission.estimate(snapshotLoader, pathsA.get(i), pathsB.get(i));
+        }
+        final List<Integer> submissionOrder = IntStream.range(0, pathsA.size()).boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> estimates[i]).reversed())
+                .toList();
+
+        // each flow is processed in its own context, futures are kept in the input order so that
+        // the reports are printed in the same order as the sequential execution
+        final List<Future<FlowDiffContext>> futures = new ArrayList<>(Collections.nCopies(pathsA.size(), null));
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, pathsA.size()))) {
+            for (int i : submissionOrder) {
+                final String pathA = pathsA.get(i);
+                final String pathB = pathsB.get(i);
+                final long estimate = estimates[i];
+                futures.set(i, executor.submit(() -> {
+                    final FlowDiffContext context = new FlowDiffContext(options, snapshotLoader);
+                    context.setQueueWaitMillis(admission == null ? 0 : admission.acquire(estimate));
+                    try {
+                        // the budget of a flow starts once it is admitted
+                        context.setDeadline(Deadline.after(options.getFlowTimeoutMillis(), snapshotLoader.getAbandonedStages()).within(runDeadline));
+                        context.setVersionedFlowChanges(versionedFlowChanges);
+                        context.setSharedSubflows(sharedSubflows);
+                        executeFlowDiffForOneFlow(context, resultStore, pathA, pathB, checkstyleEnabled, rulesConfig);
+                    } finally {
+                        if (admission != null) {
+                            admission.release(estimate);
+                        }
+                    }
+                    return context;
+                }));
+            }
+
+            for (Future<FlowDiffContext> future : futures) {
+                contexts.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while comparing flows", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            } else if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Failed to compare flows", e.getCause());
+        }
+
+        return contexts;
+    }
+
+    static boolean isDirectoryPair(final List<String> pathsA, final List<String> pathsB) {
+        return pathsA.size() == 1 && pathsB.size() == 1 && !pathsA.getFirst().isEmpty() && !pathsB.getFirst().isEmpty()
+                && Files.isDirectory(Path.of(pathsA.getFirst())) && Files.isDirectory(Path.of(pathsB.getFirst()));
+    }
+
+    static SnapshotLoader createSnapshotLoader(final FlowDiffOptions options) throws IOException {
+        final SnapshotCache snapshotCache = options.getCacheDirectory() == null && options.getMemoryCacheSizeMb() <= 0
+                ? null
+                : new SnapshotCache(options.getCacheDirectory(), options.getCacheMaxSizeMb() * 1024 * 1024, options.getMemoryCacheSizeMb() * 1024 * 1024);
+        final SnapshotLoader snapshotLoader = new SnapshotLoader(options.isSemanticLoad(), options.isDeduplicateLoad(), snapshotCache);
+        if (options.isGitObjects()) {
+            snapshotLoader.setGitObjectReader(new GitObjectReader(Path.of("").toAbsolutePath()));
+        }
+        return snapshotLoader;
+    }
+
+    static ResultStore createResultStore(final FlowDiffOptions options) throws IOException {
+        if (options.getCacheDirectory() == null || !options.isCacheResults()) {
+            return null;
+        }
+        return new ResultStore(options.getCacheDirectory(), options.getCacheMaxSizeMb() * 1024 * 1024);
+    }
+
+    static void executeFlowDiffForOneFlow(final FlowDiffContext context, final ResultStore resultStore, final String pathA,
+            final String pathB, final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        if (resultStore == null) {
+            executeFlowDiffForOneFlow(context, pathA, pathB, checkstyleEnabled, rulesConfig);
+            return;
+        }
+
+        // same files and same configuration as a previous run, the report is reused as is
+        final SnapshotLoader snapshotLoader = context.getSnapshotLoader();
+        final String resultKey = ResultStore.key(snapshotLoader.contentHash(pathA), snapshotLoader.contentHash(pathB), checkstyleEnabled, rulesConfig,
+                context.getOptions().reportOptions());
+        final StoredResult storedResult = resultStore.get(resultKey);
+        if (storedResult != null) {
+            context.out().print(storedResult.output());
+            context.setCheckstyleViolationsFound(storedResult.checkstyleViolationsFound());
+            context.setResultReused(true);
+            if (storedResult.sharedChanges() != null) {
+                final List<SharedChange> sharedChanges = new ArrayList<>();
+                for (StoredSharedChange stored : storedResult.sharedChanges()) {
+                    sharedChanges.add(context.getSharedSubflows().computeIfAbsent(stored.key(),
+                            () -> new SharedChange(stored.key(), stored.title(), null, stored.report())));
+                }
+                context.setSharedChanges(sharedChanges);
+            }
+            return;
+        }
+
+        executeFlowDiffForOneFlow(context, pathA, pathB, checkstyleEnabled, rulesConfig);
+        if (context.isTruncated()) {
+            // incomplete reports are computed again by the next run
+            return;
+        }
+        final List<StoredSharedChange> sharedChanges = context.getSharedChanges().stream()
+                .map(change -> new StoredSharedChange(change.getKey(), change.getTitle(), change.getReport()))
+                .toList();
+        resultStore.put(resultKey, new StoredResult(context.getOutput(), context.hasCheckstyleViolations(), sharedChanges));
+    }
+
+    static Set<FlowDifference> executeFlowDiffForOneFlow(final FlowDiffContext context, final String pathA, final String pathB,
+            final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        return executeFlowDiffForOneFlow(context, "`" + pathB + "`", () -> context.getSnapshotLoader().loadPair(pathA, pathB),
+                checkstyleEnabled, rulesConfig);
+    }
+
+    /**
+     * Compares both versions of a flow and writes its report to the output of its context.
+     *
+     * @param context the context of the flow
+     * @param location the name of the flow in the report if it is truncated before being named
+     * @param snapshots the loading of both versions of the flow
+     * @param checkstyleEnabled whether checkstyle is executed on the new version
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @return the differences between both versions, null if there is no original flow or if the comparison was truncated
+     */
+    static Set<FlowDifference> executeFlowDiffForOneFlow(final FlowDiffContext context, final String location, final Callable<SnapshotPair> snapshots,
+            final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        Set<FlowDifference> diffs = null;
+        try {
+            diffs = getDiff(context, context.getDeadline().call(Stage.PARSE, snapshots), checkstyleEnabled, rulesConfig);
+        } catch (DeadlineExceededException e) {
+            // the report only contains the stages completed within the budget
+            context.setTruncation(e);
+            if (context.getFlowName().isEmpty()) {
+                context.setFlowName(location);
+            }
+        }
+        printFlowDiff(context, diffs, checkstyleEnabled);
+        return diffs;
+    }
+
+    /**
+     * Writes the report of a flow to the output of its context.
+     *
+     * @param context the context of the flow
+     * @param diffs the differences of the flow, null if there is no original flow or if the comparison was truncated
+     * @param checkstyleEnabled whether checkstyle was executed
+     */
+    static void printFlowDiff(final FlowDiffContext context, final Set<FlowDifference> diffs, final boolean checkstyleEnabled) {
+        final Deadline deadline = context.getDeadline();
+        // checkstyle is executed before the comparison
+        final boolean checkstyleCompleted = !context.isTruncated() || context.getTruncation().getStage() == Stage.COMPARE;
+        final Set<String> bundleChanges = new HashSet<>();
+        final PrintStream out = context.out();
+        final String flowName = context.getFlowName();
+        final List<CheckstyleViolation> checkstyleViolations = context.getCheckstyleViolations();
+        boolean flowHasCheckstyleViolations = false;
+
+        out.println("### Executing Snowflake Flow Diff for flow: " + flowName);
+
+        if (checkstyleEnabled && checkstyleViolations != null && !checkstyleViolations.isEmpty()) {
+            out.println("#### Checkstyle Violations");
+            out.println("> [!CAUTION]");
+            for (CheckstyleViolation violation : checkstyleViolations) {
+                out.println("> - " + violation.message());
+            }
+            out.println("");
+            flowHasCheckstyleViolations = true;
+        } else if (checkstyleEnabled && checkstyleCompleted && (checkstyleViolations == null || checkstyleViolations.isEmpty())) {
+            out.println("#### No Checkstyle Violations found");
+        }
+
+        if (context.isTruncated()) {
+            // the flows have not been entirely compared, there is no change to report
+        } else if (diffs != null && (!diffs.isEmpty() || !context.getSharedChanges().isEmpty())) {
+
+            out.println("#### Flow Changes");
+
+            // layout changes are not rendered, they are neither counted nor aggregated
+            final List<FlowDifference> renderedDiffs = diffs.stream()
+                    .filter(diff -> !LAYOUT_DIFFERENCE_TYPES.contains(diff.getDifferenceType()))
+                    .toList();
+            final int summaryThreshold = context.getOptions().getSummaryThreshold();
+            if (summaryThreshold > 0 && renderedDiffs.size() > summaryThreshold) {
+                printAggregatedDifferences(context, out, renderedDiffs, bundleChanges);
+            } else {
+                for (FlowDifference diff : renderedDiffs) {
+                    if (deadline.isExpired()) {
+                        context.setTruncation(new DeadlineExceededException(Stage.RENDER, deadline.elapsedMillis()));
+                        break;
+                    }
+
+                    printDifference(context, out, diff, bundleChanges);
+                }
+            }
+
+            if (context.isTruncated()) {
+                // the shared changes are only listed for the flows rendered within the budget
+                context.setSharedChanges(List.of());
+            }
+            for (SharedChange sharedChange : context.getSharedChanges()) {
+                // rendered by the first flow reporting the change, and listed once at the end of the comment
+                sharedChange.getReport(() -> renderSharedChange(context, sharedChange.getDifferences()));
+                out.println("- The changes of the " + sharedChange.getTitle() + " are listed in the shared sub-flow changes");
+            }
+
+            if (bundleChanges.size() > 0) {
+                out.println("");
+                out.println("#### Bundle Changes");
+                for (String bundleChange : bundleChanges) {
+                    out.println(bundleChange);
+                }
+            }
+        } else if (diffs == null) {
+            out.println("#### No changes as this is the first version of the flow");
+        } else {
+            out.println("#### No relevant changes found in the flow");
+        }
+
+        if (context.isTruncated()) {
+            final DeadlineExceededException truncation = context.getTruncation();
+            out.println("");
+            out.println("> [!WARNING]");
+            out.println("> Truncated after " + truncation.getElapsedMillis() + " ms in stage `" + truncation.getStage().getDisplayName()
+                    + "`, the report of this flow is incomplete.");
+        }
+
+        context.setCheckstyleViolationsFound(flowHasCheckstyleViolations);
+    }
+
+    // the identical changes of several components are printed once with a sample of the components
+    private static void printAggregatedDifferences(final FlowDiffContext context, final PrintStream out, final List<FlowDifference> diffs,
+            final Set<String> bundleChanges) {
+        final Deadline deadline = context.getDeadline();
+        final List<DifferenceGroup> groups = DifferenceAggregator.aggregate(diffs, SUMMARY_SAMPLE_SIZE);
+        out.println("_" + diffs.size() + " changes, the identical changes of several components are listed together ("
+                + groups.size() + " distinct changes)_");
+
+        for (DifferenceGroup group : groups) {
+            if (deadline.isExpired()) {
+                context.setTruncation(new DeadlineExceededException(Stage.RENDER, deadline.elapsedMillis()));
+                break;
+            }
+
+            final FlowDifference first = group.first();
+            // bundle changes are already listed once per bundle
+            if (group.size() == 1 || first.getDifferenceType() == DifferenceType.BUNDLE_CHANGED) {
+                printDifference(context, out, first, bundleChanges);
+                continue;
+            }
+
+            final String fieldName = first.getFieldName().map(name -> " (`" + name + "`)").orElse("");
+            final String values;
+            if (first.getValueA() == null && first.getValueB() == null) {
+                values = "";
+            } else if (first.getValueA() instanceof String valueA && first.getValueB() instanceof String valueB) {
+                values = " from " + printPropertyChange(context.getFlowIndexA(), valueA, context.getFlowIndexB(), valueB, context.getOptions().getDiffContext());
+            } else {
+                values = " from " + printFromTo(printAggregatedValue(context.getFlowIndexA(), first.getValueA()),
+                        printAggregatedValue(context.getFlowIndexB(), first.getValueB()), context.getOptions().getDiffContext());
+            }
+            final List<String> components = group.samples().stream()
+                    .map(diff -> printComponent(diff.getComponentB() != null ? diff.getComponentB() : diff.getComponentA()))
+                    .toList();
+            final int others = group.size() - components.size();
+            out.println("- " + first.getDifferenceType().getDescription() + fieldName + " in " + group.size() + " components" + values + ": "
+                    + String.join(", ", components) + (others > 0 ? " and " + others + " more" : ""));
+        }
+    }
+
+    private static String printAggregatedValue(final FlowIndex flowIndex, final Object value) {
+        if (value instanceof Bundle bundle) {
+            return bundle.getGroup() + ":" + bundle.getArtifact() + ":" + bundle.getVersion();
+        }
+        if (value instanceof VersionedComponent component) {
+            return component.getName();
+        }
+        return value == null ? null : printPropertyValue(flowIndex, value.toString());
+    }
+
+    private static void printDifference(final FlowDiffContext context, final PrintStream out, final FlowDifference diff,
+            final Set<String> bundleChanges) {
+        final FlowIndex flowIndexA = context.getFlowIndexA();
+        final FlowIndex flowIndexB = context.getFlowIndexB();
+        final int diffContext = context.getOptions().getDiffContext();
+
+        switch (diff.getDifferenceType()) {
+        case COMPONENT_ADDED: {
+            if (diff.getComponentB().getComponentType().equals(ComponentType.FUNNEL)) {
+                out.println("- A Funnel has been added");
+            } else if (diff.getComponentB().getComponentType().equals(ComponentType.CONNECTION)) {
+                final VersionedConnection connection = (VersionedConnection) diff.getComponentB();
+                printConnection(out, connection);
+            } else if (diff.getComponentB().getComponentType().equals(ComponentType.PROCESSOR)) {
+                final VersionedProcessor proc = (VersionedProcessor) diff.getComponentB();
+                out.println("- A " + printComponent(diff.getComponentB())
+                        + " has been added with the configuration [" + printProcessorConf(proc) + "] and the below properties:");
+                printConfigurableExtensionProperties(out, flowIndexB, proc);
+            } else if (diff.getComponentB().getComponentType().equals(ComponentType.CONTROLLER_SERVICE)) {
+                final VersionedControllerService cs = (VersionedControllerService) diff.getComponentB();
+                final String pgName = flowIndexB.getProcessGroup(cs.getGroupIdentifier()).getName();
+                out.println("- A " + printComponent(diff.getComponentB())
+                        + " has been added in Process Group `" + pgName + "` with the below properties:");
+                printConfigurableExtensionProperties(out, flowIndexB, cs);
+            } else if (diff.getComponentB().getComponentType().equals(ComponentType.LABEL)) {
+                final VersionedLabel label = (VersionedLabel) diff.getComponentB();
+                out.println("- A Label has been added with the below text:");
+                out.println("```");
+                out.println(label.getLabel());
+                out.println("```");
+            } else {
+                out.println("- A " + diff.getComponentB().getComponentType().getTypeName()
+                        + (isEmpty(diff.getComponentB().getName()) ? "" : " named `" + diff.getComponentB().getName() + "`")
+                        + " has been added");
+            }
+            break;
+        }
+        case COMPONENT_REMOVED: {
+            if (diff.getComponentA().getComponentType().equals(ComponentType.FUNNEL)) {
+                out.println("- A Funnel has been removed");
+            } else if (diff.getComponentA().getComponentType().equals(ComponentType.CONNECTION)) {
+                final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+                if (connection.getSource().getId().equals(connection.getDestination().getId())) {
+                    out.println("- A self-loop connection `"
+                            + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                            + "` has been removed from `" + connection.getSource().getName() + "`");
+                } else {
+                    out.println("- A connection `"
+                            + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                            + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                            + "` has been removed");
+                }
+            } else {
+                out.println("- A " + printComponent(diff.getComponentA()) + " has been removed");
+            }
+            break;
+        }
+        case DESTINATION_CHANGED: {
+            out.println("- The destination of a connection has changed from `" + ((ConnectableComponent) diff.getValueA()).getName()
+                    + "` to `" + ((ConnectableComponent) diff.getValueB()).getName() + "`");
+            break;
+        }
+        case PROPERTY_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA()) + ", the value of the property "
+                    + "`" + diff.getFieldName().get() + "` changed from "
+                    + printPropertyChange(flowIndexA, diff.getValueA().toString(), flowIndexB, diff.getValueB().toString(), diffContext));
+            break;
+        }
+        case CONCURRENT_TASKS_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA()) + ", the number of concurrent tasks has been "
+                    + ((int) diff.getValueA() > (int) diff.getValueB() ? "decreased" : "increased")
+                    + " from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case BACKPRESSURE_DATA_SIZE_THRESHOLD_CHANGED: {
+            final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+            out.println("- The data size backpressure threshold for the connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case BACKPRESSURE_OBJECT_THRESHOLD_CHANGED: {
+            final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+            out.println("- The flowfile number backpressure threshold for the connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case BULLETIN_LEVEL_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the bulletin level has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case RUN_DURATION_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Run Duration changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case RUN_SCHEDULE_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Run Schedule changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case AUTO_TERMINATED_RELATIONSHIPS_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the list of auto-terminated relationships changed from "
+                    + "`" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case LOAD_BALANCE_STRATEGY_CHANGED: {
+            final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+            out.println("- The load balancing strategy for the connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case LOAD_BALANCE_COMPRESSION_CHANGED: {
+            final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+            out.println("- The load balancing compression for the connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case FLOWFILE_EXPIRATION_CHANGED: {
+            final VersionedConnection connection = (VersionedConnection) diff.getComponentA();
+            out.println("- The flow file expiration for the connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case PENALTY_DURATION_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the penalty duration changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case PARAMETER_CONTEXT_CHANGED: {
+            final VersionedProcessGroup pg = (VersionedProcessGroup) diff.getComponentB();
+            out.println("- The Parameter Context `" + pg.getParameterContextName() + "` with parameters `"
+                    + printParameterContext(flowIndexB.getParameterContext(pg.getParameterContextName()))
+                    + "` has been added to the process group `" + pg.getName() + "`");
+            break;
+        }
+        case SCHEDULING_STRATEGY_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Scheduling Strategy changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case BUNDLE_CHANGED:
+            Bundle before = (Bundle) diff.getValueA();
+            Bundle after = (Bundle) diff.getValueB();
+            bundleChanges.add("- The bundle `"
+                    + before.getGroup() + ":" + before.getArtifact()
+                    + "` has been changed from version "
+                    + "`" + before.getVersion() + "` to version `" + after.getVersion() + "`");
+            break;
+        case NAME_CHANGED: {
+            out.println("- A " + printComponent(diff.getComponentA())
+                    + " has been renamed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case PROPERTY_ADDED: {
+            final String propKey = diff.getFieldName().get();
+            String propValue = null;
+            if (diff.getComponentB() instanceof VersionedConfigurableExtension) {
+                final VersionedPropertyDescriptor propertyDescriptor = ((VersionedConfigurableExtension) diff.getComponentB()).getPropertyDescriptors().get(propKey);
+                if (propertyDescriptor != null && propertyDescriptor.isSensitive()) {
+                    propValue = "<Sensitive Value>";
+                } else {
+                    propValue = printPropertyValue(flowIndexB, ((VersionedConfigurableExtension) diff.getComponentB()).getProperties().get(propKey));
+                }
+            }
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", a property has been added: " + "`" + propKey + "` = `" + propValue + "`");
+            break;
+        }
+        case PROPERTY_PARAMETERIZED: {
+            final String propKey = diff.getFieldName().get();
+            String propValue = null;
+            if (diff.getComponentB() instanceof VersionedProcessor) {
+                propValue = ((VersionedProcessor) diff.getComponentB()).getProperties().get(propKey);
+            }
+            if (diff.getComponentB() instanceof VersionedControllerService) {
+                propValue = ((VersionedControllerService) diff.getComponentB()).getProperties().get(propKey);
+            }
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", a property is now referencing a parameter: "
+                    + "`" + propKey + "` = `" + propValue + "`");
+            break;
+        }
+        case PROPERTY_PARAMETERIZATION_REMOVED: {
+            final String propKey = diff.getFieldName().get();
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the property `" + propKey + "` is no longer referencing a parameter");
+            break;
+        }
+        case SCHEDULED_STATE_CHANGED: {
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Schedule State changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        }
+        case PARAMETER_ADDED: {
+            final String paramKey = diff.getFieldName().get();
+            final VersionedParameterContext pc = (VersionedParameterContext) diff.getComponentB();
+            final VersionedParameter param = flowIndexB.getParameter(pc.getName(), paramKey);
+
+            final String description;
+            if (isEmpty(param.getDescription())) {
+                description = "";
+            } else if (isMultiline(param.getDescription())) {
+                description = " with the description\n```\n" + param.getDescription() + "\n```";
+            } else {
+                description = " with the description `" + param.getDescription() + "`";
+            }
+
+            out.println("- In the Parameter Context `" + pc.getName() + "` a parameter has been added: `"
+                    + paramKey + "` = `" + (param.isSensitive() ? "<Sensitive Value>" : param.getValue()) + "`"
+                    + description);
+            break;
+        }
+        case PARAMETER_REMOVED: {
+            out.println("- In the Parameter Context `" + diff.getComponentB().getName()
+                    + "` the parameter `" + diff.getFieldName().get() + "` has been removed");
+            break;
+        }
+        case PROPERTY_REMOVED: {
+            out.println("- In " + printComponent(diff.getComponentA()) + ", the property `" + diff.getFieldName().get() + "` has been removed");
+            break;
+        }
+        case PARAMETER_VALUE_CHANGED: {
+            final String paramKey = diff.getFieldName().get();
+            final VersionedParameterContext pcBefore = (VersionedParameterContext) diff.getComponentA();
+            final VersionedParameterContext pcAfter = (VersionedParameterContext) diff.getComponentB();
+            final VersionedParameter paramBefore = flowIndexA.getParameter(pcBefore.getName(), paramKey);
+            final VersionedParameter paramAfter = flowIndexB.getParameter(pcAfter.getName(), paramKey);
+            out.println("- In the Parameter Context `" + pcAfter.getName()
+                    + "`, the value of the parameter `" + paramKey + "` has changed from "
+                    + printFromTo(paramBefore.isSensitive() ? "<Sensitive Value>" : paramBefore.getValue(),
+                            paramAfter.isSensitive() ? "<Sensitive Value>" : paramAfter.getValue(), diffContext));
+            break;
+        }
+        case INHERITED_CONTEXTS_CHANGED:
+            final VersionedParameterContext pc = (VersionedParameterContext) diff.getComponentA();
+            out.println("- In the Parameter Context `" + pc.getName()
+                    + "`, the list of inherited parameter contexts changed from `"
+                    + diff.getValueA() + "`" + " to `" + diff.getValueB() + "`");
+            break;
+        case PARTITIONING_ATTRIBUTE_CHANGED:
+            final VersionedConnection pacConnection = (VersionedConnection) diff.getComponentA();
+            out.println("- The partitioning attribute for the connection `"
+                    + (isEmpty(pacConnection.getName()) ? pacConnection.getSelectedRelationships().toString() : pacConnection.getName())
+                    + "` from `" + pacConnection.getSource().getName() + "` to `" + pacConnection.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case PARAMETER_DESCRIPTION_CHANGED:
+            final String paramKey = diff.getFieldName().get();
+            final VersionedParameterContext pdcPc = (VersionedParameterContext) diff.getComponentA();
+            out.println("- In the Parameter Context `" + pdcPc.getName() + "` the description of the parameter `"
+                    + paramKey + "` has changed from " + printFromTo(diff.getValueA().toString(), diff.getValueB().toString(), diffContext));
+            break;
+        case PRIORITIZERS_CHANGED:
+            final VersionedConnection connectionPrio = (VersionedConnection) diff.getComponentA();
+            out.println("- The prioritizers for the connection `"
+                    + (isEmpty(connectionPrio.getName()) ? connectionPrio.getSelectedRelationships().toString() : connectionPrio.getName())
+                    + "` from `" + connectionPrio.getSource().getName() + "` to `" + connectionPrio.getDestination().getName()
+                    + "` changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case SELECTED_RELATIONSHIPS_CHANGED:
+            final VersionedConnection connectionSRC = (VersionedConnection) diff.getComponentA();
+            out.println("- The selected relationships for the connection `"
+                    + (isEmpty(connectionSRC.getName()) ? connectionSRC.getSelectedRelationships().toString() : connectionSRC.getName())
+                    + "` from `" + connectionSRC.getSource().getName() + "` to `" + connectionSRC.getDestination().getName()
+                    + "` has been changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case YIELD_DURATION_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the yield duration changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case RETRY_COUNT_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Number of Retry Attempts changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case MAX_BACKOFF_PERIOD_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Retry Maximum Back Off Period changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case BACKOFF_MECHANISM_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the Retry Back Off Policy changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case COMMENTS_CHANGED:
+            out.println("- The comment for the " + printComponent(diff.getComponentA())
+                    + " has been changed from " + printFromTo(diff.getValueA().toString(), diff.getValueB().toString(), diffContext));
+            break;
+        case RETRIED_RELATIONSHIPS_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA())
+                    + ", the list of retried relationships changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case LABEL_VALUE_CHANGED:
+            out.println("- A label has been updated and its text has been changed from "
+                    + printFromTo(diff.getValueA().toString(), diff.getValueB().toString(), diffContext));
+            break;
+        case EXECUTION_MODE_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentB())
+                    + ", the Execution Mode changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case PROPERTY_SENSITIVITY_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentA()) + ", the sensitivity of the property `"
+                    + diff.getFieldName().get() + "` changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case SIZE_CHANGED, STYLE_CHANGED, POSITION_CHANGED, BENDPOINTS_CHANGED, ZINDEX_CHANGED:
+            // no need to print these, they are not relevant for the user
+            break;
+        case FLOWFILE_CONCURRENCY_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentB())
+                    + ", the FlowFile Concurrency changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case FLOWFILE_OUTBOUND_POLICY_CHANGED:
+            out.println("- In " + printComponent(diff.getComponentB())
+                    + ", the FlowFile Outbound Policy changed from `" + diff.getValueA() + "` to `" + diff.getValueB() + "`");
+            break;
+        case VERSIONED_FLOW_COORDINATES_CHANGED:
+            final VersionedProcessGroup pg = (VersionedProcessGroup) diff.getComponentA();
+            final VersionedFlowCoordinates vfcBefore = (VersionedFlowCoordinates) diff.getValueA();
+            final VersionedFlowCoordinates vfcAfter = (VersionedFlowCoordinates) diff.getValueB();
+            out.println("- The Versioned Flow Coordinates for the Process Group `" + pg.getName() + "` have changed: "
+                    + printVFCChanges(vfcBefore, vfcAfter));
+            final DifferenceIndex versionedChanges = context.getVersionedFlowChanges().get(vfcBefore, vfcAfter);
+            if (versionedChanges != null) {
+                for (FlowDifference versionedChange : versionedChanges.getDifferences()) {
+                    final VersionedComponent changedComponent = versionedChange.getComponentB() == null
+                            ? versionedChange.getComponentA()
+                            : versionedChange.getComponentB();
+                    if (!LAYOUT_DIFFERENCE_TYPES.contains(versionedChange.getDifferenceType())) {
+                        out.println("  - " + versionedChange.getDifferenceType().getDescription() + " in "
+                                + printComponent(changedComponent) + ": " + versionedChange.getDescription());
+                    }
+                }
+            }
+            break;
+
+        default:
+            out.println("- " + diff.getDescription() + " (" + diff.getDifferenceType() + ")");
+            out.println("  - " + diff.getValueA());
+            out.println("  - " + diff.getValueB());
+            out.println("  - " + diff.getComponentA());
+            out.println("  - " + diff.getComponentB());
+            out.println("  - " + diff.getFieldName());
+            break;
+        }
+    }
+
+    public static Set<FlowDifference> getDiff(final String pathA, final String pathB,
+            final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        return getDiff(new FlowDiffContext(), pathA, pathB, checkstyleEnabled, rulesConfig);
+    }
+
+    public static Set<FlowDifference> getDiff(final FlowDiffContext context, final String pathA, final String pathB,
+            final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        final SnapshotPair snapshots = context.getDeadline().call(Stage.PARSE, () -> context.getSnapshotLoader().loadPair(pathA, pathB));
+        return getDiff(context, snapshots, checkstyleEnabled, rulesConfig);
+    }
+
+    /**
+     * @param context the context of the flow
+     * @param snapshots the loaded snapshots of both versions of the flow, they are scoped and indexed in place
+     * @param checkstyleEnabled whether checkstyle is executed on the new version
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @return the differences between both versions, null if there is no original flow
+     */
+    static Set<FlowDifference> getDiff(final FlowDiffContext context, final SnapshotPair snapshots, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig) throws IOException {
+        final Deadline deadline = context.getDeadline();
+        // no original flow - meaning that the Github Action is executed against the
+        // first version of the flow
+        final boolean noOriginalFlow = snapshots.snapshotA() == null;
+        final FlowSnapshotContainer snapshotA = snapshots.snapshotA();
+        final FlowSnapshotContainer snapshotB = snapshots.snapshotB();
+
+        String plainFlowName = "";
+        if (snapshotA != null && snapshotA.getFlowSnapshot().getFlow() != null) {
+            plainFlowName = snapshotA.getFlowSnapshot().getFlow().getName();
+        } else if (snapshotB.getFlowSnapshot().getFlow() != null) {
+            plainFlowName = snapshotB.getFlowSnapshot().getFlow().getName();
+        }
+
+        context.setFlowName(plainFlowName.isEmpty() ? "Unnamed Flow" : "`" + plainFlowName + "`");
+
+        // the process groups out of the scope of the flow are neither compared nor checked
+        final ScopeConfig scopeConfig = rulesConfig == null ? null : rulesConfig.scopeFor(plainFlowName);
+        if (scopeConfig != null) {
+            final ProcessGroupScope scope = ProcessGroupScope.of(scopeConfig.include(), scopeConfig.exclude());
+            applyScope(scope, snapshotB.getFlowSnapshot());
+            if (snapshotA != null) {
+                applyScope(scope, snapshotA.getFlowSnapshot());
+            }
+        }
+
+        final FlowIndex flowIndexB = FlowIndex.of(snapshotB.getFlowSnapshot());
+        context.setFlowIndexB(flowIndexB);
+
+        if (checkstyleEnabled) {
+            final String flowName = plainFlowName;
+            context.setCheckstyleViolations(deadline.call(Stage.CHECKSTYLE,
+                    () -> FlowCheckstyle.getViolations(snapshotB, flowName, rulesConfig, context.getCheckstyleCache())));
+        }
+
+        if (noOriginalFlow) {
+            // we have executed checkstyle if enabled
+            // no original flow, so we are not comparing with anything
+            return null;
+        }
+
+        // identifier is null for parameter contexts, and we know that names are unique so setting name as id
+        snapshotA.getFlowSnapshot().getParameterContexts().values().forEach(pc -> pc.setIdentifier(pc.getName()));
+        snapshotB.getFlowSnapshot().getParameterContexts().values().forEach(pc -> pc.setIdentifier(pc.getName()));
+
+        final FlowIndex flowIndexA = FlowIndex.of(snapshotA.getFlowSnapshot());
+        context.setFlowIndexA(flowIndexA);
+
+        final List<SharedChange> sharedChanges = new ArrayList<>();
+        final DifferenceIndex differenceIndex = deadline.call(Stage.COMPARE, () -> compare(context, snapshotA, snapshotB, sharedChanges));
+        context.setDifferenceIndex(differenceIndex);
+        context.setSharedChanges(sharedChanges);
+        return differenceIndex.getDifferences();
+    }
+
+    private static DifferenceIndex compare(final FlowDiffContext context, final FlowSnapshotContainer snapshotA,
+            final FlowSnapshotContainer snapshotB, final List<SharedChange> sharedChanges) {
+        // same canonical content (ignoring layout and ordering), no need to run the comparator
+        final FlowHashes hashesA = SnapshotHasher.hash(snapshotA.getFlowSnapshot());
+        final FlowHashes hashesB = SnapshotHasher.hash(snapshotB.getFlowSnapshot());
+        if (hashesA.flowHash().equals(hashesB.flowHash())) {
+            return DifferenceIndex.empty();
+        }
+
+        VersionedProcessGroup flowContentsA = snapshotA.getFlowSnapshot().getFlowContents();
+        VersionedProcessGroup flowContentsB = snapshotB.getFlowSnapshot().getFlowContents();
+        if (context.getOptions().isPruneUnchangedGroups()) {
+            // only the process groups on the path to a change are handed to the comparator
+            final PrunedGroups pruned = ProcessGroupPruner.prune(flowContentsA, hashesA.processGroupHashes(),
+                    flowContentsB, hashesB.processGroupHashes());
+            flowContentsA = pruned.groupA();
+            flowContentsB = pruned.groupB();
+        }
+
+        // process groups of both versions, used to order the differences by process group
+        final Map<String, VersionedProcessGroup> allProcessGroups = new HashMap<>(context.getFlowIndexA().getProcessGroups());
+        allProcessGroups.putAll(context.getFlowIndexB().getProcessGroups());
+
+        final GroupComparison comparison = new GroupComparison(context.getOptions(), context.getVersionedFlowChanges(),
+                context.getSharedSubflows(), new HashSet<>(snapshotA.getFlowSnapshot().getParameterContexts().values()),
+                new HashSet<>(snapshotB.getFlowSnapshot().getParameterContexts().values()), allProcessGroups,
+                hashesA.processGroupHashes(), hashesB.processGroupHashes(), sharedChanges);
+        return comparison.compare(flowContentsA, flowContentsB, true);
+    }
+
+    /**
+     * Comparison of the process groups of one flow. The versioned child groups may be compared on
+     * their own, see {@link FlowDiffOptions#getVersionedStrategy()} and {@link FlowDiffOptions#isSharedSubflows()}.
+     */
+    private record GroupComparison(FlowDiffOptions options, VersionedFlowChanges versionedFlowChanges, SharedSubflows sharedSubflows,
+            Set<VersionedParameterContext> parameterContextsA, Set<VersionedParameterContext> parameterContextsB,
+            Map<String, VersionedProcessGroup> allProcessGroups, Map<String, String> hashesA, Map<String, String> hashesB,
+            List<SharedChange> sharedChanges) {
+
+        DifferenceIndex compare(final VersionedProcessGroup groupA, final VersionedProcessGroup groupB, final boolean shareSubflows) {
+            VersionedProcessGroup flowContentsA = groupA;
+            VersionedProcessGroup flowContentsB = groupB;
+            if (options.getVersionedStrategy() == FlowComparatorVersionedStrategy.SHALLOW) {
+                // the versioned child groups are only compared by their coordinates
+                final CollapsedGroups collapsed = VersionedGroupCollapser.collapse(groupA, groupB);
+                flowContentsA = collapsed.groupA();
+                flowContentsB = collapsed.groupB();
+
+                if (options.isVersionedFlowChanges()) {
+                    for (VersionedGroupPair versionedGroup : collapsed.versionedGroups()) {
+                        Deadline.checkInterrupted(Stage.COMPARE);
+                        final VersionedFlowCoordinates coordinatesA = versionedGroup.groupA().getVersionedFlowCoordinates();
+                        final VersionedFlowCoordinates coordinatesB = versionedGroup.groupB().getVersionedFlowCoordinates();
+                        if (!coordinatesA.equals(coordinatesB)) {
+                            versionedFlowChanges.computeIfAbsent(coordinatesA, coordinatesB, () -> compareContents(versionedGroup));
+                        }
+                    }
+                }
+            } else if (shareSubflows && options.isSharedSubflows()) {
+                // the changed versioned child groups are compared once for all the flows of the run
+                final CollapsedGroups collapsed = VersionedGroupCollapser.collapse(groupA, groupB);
+                flowContentsA = collapsed.groupA();
+                flowContentsB = collapsed.groupB();
+
+                for (VersionedGroupPair versionedGroup : collapsed.versionedGroups()) {
+                    Deadline.checkInterrupted(Stage.COMPARE);
+                    final String hashA = hashesA.get(versionedGroup.groupA().getIdentifier());
+                    final String hashB = hashesB.get(versionedGroup.groupB().getIdentifier());
+                    if (Objects.equals(hashA, hashB)) {
+                        continue;
+                    }
+                    final String key = SharedSubflows.key(versionedGroup.groupA().getVersionedFlowCoordinates(), hashA,
+                            versionedGroup.groupB().getVersionedFlowCoordinates(), hashB);
+                    final SharedChange sharedChange = sharedSubflows.computeIfAbsent(key,
+                            () -> new SharedChange(key, sharedChangeTitle(versionedGroup), compareContents(versionedGroup), null));
+                    if (!sharedChanges.contains(sharedChange)) {
+                        sharedChanges.add(sharedChange);
+                    }
+                }
+            }
+
+            final FlowComparator flowComparator = new StandardFlowComparator(
+                    new StandardComparableDataFlow(
+                            "Flow A",
+                            flowContentsA,
+                            null,
+                            null,
+                            null,
+                            parameterContextsA,
+                            null,
+                            null
+                            ),
+                    new StandardComparableDataFlow(
+                            "Flow B",
+                            flowContentsB,
+                            null,
+                            null,
+                            null,
+                            parameterContextsB,
+                            null,
+                            null
+                            ),
+                    Collections.emptySet(),
+                    new ConciseEvolvingDifferenceDescriptor(),
+                    Function.identity(),
+                    VersionedComponent::getIdentifier,
+                    options.getVersionedStrategy()
+                );
+
+            return DifferenceIndex.of(flowComparator.compare().getDifferences(), allProcessGroups);
+        }
+
+        private DifferenceIndex compareContents(final VersionedGroupPair versionedGroup) {
+            // the change of coordinates of the versioned group itself is reported by the flow embedding it
+            final String identifier = versionedGroup.groupA().getIdentifier();
+            final List<FlowDifference> differences = compare(versionedGroup.groupA(), versionedGroup.groupB(), false).getDifferences().stream()
+                    .filter(diff -> diff.getDifferenceType() != DifferenceType.VERSIONED_FLOW_COORDINATES_CHANGED
+                            || !identifier.equals(diff.getComponentA().getIdentifier()))
+                    .toList();
+            return DifferenceIndex.of(differences, allProcessGroups);
+        }
+    }
+
+    private static String sharedChangeTitle(final VersionedGroupPair versionedGroup) {
+        final VersionedFlowCoordinates coordinatesA = versionedGroup.groupA().getVersionedFlowCoordinates();
+        final VersionedFlowCoordinates coordinatesB = versionedGroup.groupB().getVersionedFlowCoordinates();
+        final String versions = Objects.equals(coordinatesA.getVersion(), coordinatesB.getVersion())
+                ? "version `" + coordinatesB.getVersion() + "` with local changes"
+                : "version `" + coordinatesA.getVersion() + "` to `" + coordinatesB.getVersion() + "`";
+        return "Process Group `" + versionedGroup.groupB().getName() + "` (flow `" + coordinatesB.getFlowId() + "`, " + versions + ")";
+    }
+
+    private static String renderSharedChange(final FlowDiffContext context, final DifferenceIndex differences) {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        final Set<String> bundleChanges = new HashSet<>();
+        for (FlowDifference diff : differences.getDifferences()) {
+            printDifference(context, out, diff, bundleChanges);
+        }
+        bundleChanges.forEach(out::println);
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void applyScope(final ProcessGroupScope scope, final RegisteredFlowSnapshot snapshot) {
+        snapshot.setFlowContents(scope.apply(snapshot.getFlowContents()));
+        snapshot.setParameterContexts(scope.apply(snapshot.getFlowContents(), snapshot.getParameterContexts()));
+    }
+
+    static FlowSnapshotContainer getFlowContainer(final String path) throws IOException {
+        return SNAPSHOT_LOADER.load(Path.of(path));
+    }
+
+    static String printComponent(final VersionedComponent component) {
+        String result = component.getComponentType().getTypeName();
+
+        if (component instanceof VersionedConfigurableExtension) {
+            result += " of type `" + substringAfterLast(((VersionedConfigurableExtension) component).getType(), ".") + "`";
+        }
+
+        result += (isEmpty(component.getName()) ? "" : " named `" + component.getName() + "`");
+
+        return result;
+    }
+
+    static String printParameterContext(final VersionedParameterContext pc) {
+        final Map<String, String> parameters = new HashMap<>();
+        for (VersionedParameter p : pc.getParameters()) {
+            if (p.isSensitive()) {
+                parameters.put(p.getName(), "<Sensitive Value>");
+            } else {
+                parameters.put(p.getName(), p.getValue());
+            }
+        }
+        return parameters.toString();
+    }
+
+    static void printConfigurableExtensionProperties(final PrintStream out, final FlowIndex flowIndex, final VersionedConfigurableExtension proc) {
+        for (String key : proc.getProperties().keySet()) {
+            out.println("  - `" + key + "` = `" + printPropertyValue(flowIndex, proc.getProperties().get(key)) + "`");
+        }
+    }
+
+    // references to controller services of the flow are shown with the name of the service instead of its identifier,
+    // followed by the identifier when several services of the flow have this name
+    static String printPropertyValue(final FlowIndex flowIndex, final String value) {
+        return printPropertyValue(flowIndex, value, false);
+    }
+
+    private static String printPropertyValue(final FlowIndex flowIndex, final String value, final boolean withIdentifier) {
+        final VersionedControllerService controllerService = flowIndex == null ? null : flowIndex.getControllerService(value);
+        if (controllerService == null || isEmpty(controllerService.getName())) {
+            return value;
+        }
+        return withIdentifier || flowIndex.isAmbiguousControllerServiceName(controllerService.getName())
+                ? controllerService.getName() + " (" + value + ")"
+                : controllerService.getName();
+    }
+
+    // a reference moved to another service with the same name is shown with both identifiers
+    static String printPropertyChange(final FlowIndex flowIndexA, final String valueA, final FlowIndex flowIndexB, final String valueB,
+            final int diffContext) {
+        final String printedA = printPropertyValue(flowIndexA, valueA);
+        final String printedB = printPropertyValue(flowIndexB, valueB);
+        if (Objects.equals(printedA, printedB) && !Objects.equals(valueA, valueB)) {
+            return printFromTo(printPropertyValue(flowIndexA, valueA, true), printPropertyValue(flowIndexB, valueB, true), diffContext);
+        }
+        return printFromTo(printedA, printedB, diffContext);
+    }
+
+    static String printProcessorConf(final VersionedProcessor proc) {
+        return "`" + proc.getExecutionNode() + "` nodes, `" + proc.getConcurrentlySchedulableTaskCount() + "` concurrent tasks, `"
+                + proc.getRunDurationMillis() + "ms` run duration, `" + proc.getBulletinLevel() + "` bulletin level, `"
+                + proc.getSchedulingStrategy() + "` (`" + proc.getSchedulingPeriod() + "`), `"
+                + proc.getPenaltyDuration() + "` penalty duration, `" + proc.getYieldDuration() + "` yield duration";
+    }
+
+    static void printConnection(final PrintStream out, final VersionedConnection connection) {
+        String message;
+        if (connection.getSource().getId().equals(connection.getDestination().getId())) {
+            message = "- A self-loop connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` has been added on `" + connection.getSource().getName() + "`";
+        } else {
+            message = "- A connection `"
+                    + (isEmpty(connection.getName()) ? connection.getSelectedRelationships().toString() : connection.getName())
+                    + "` from `" + connection.getSource().getName() + "` to `" + connection.getDestination().getName()
+                    + "` has been added";
+        }
+
+        List<String> nonDefaultConfigurations = new ArrayList<>();
+
+        if (!connection.getLoadBalanceStrategy().equals("DO_NOT_LOAD_BALANCE")) {
+            String lbConfiguration = "load balancing strategy `" + connection.getLoadBalanceStrategy() + "`";
+            if (connection.getLoadBalanceStrategy().equals("PARTITION_BY_ATTRIBUTE")) {
+                lbConfiguration += " and partitioning attribute `" + connection.getPartitioningAttribute() + "`";
+            }
+            if (!connection.getLoadBalanceCompression().equals("DO_NOT_COMPRESS")) {
+                lbConfiguration += " and load balancing compression `" + connection.getLoadBalanceCompression() + "`";
+            }
+            nonDefaultConfigurations.add(lbConfiguration);
+        }
+
+        if (!connection.getPrioritizers().isEmpty()) {
+            nonDefaultConfigurations.add("prioritizers `" + connection.getPrioritizers() + "`");
+        }
+
+        if (!connection.getFlowFileExpiration().equals("0 sec")) {
+            nonDefaultConfigurations.add("FlowFile expiration of `" + connection.getFlowFileExpiration() + "`");
+        }
+
+        if (!connection.getBackPressureDataSizeThreshold().equals("1 GB")) {
+            nonDefaultConfigurations.add("backpressure data size threshold of `" + connection.getBackPressureDataSizeThreshold() + "`");
+        }
+
+        if (connection.getBackPressureObjectThreshold() != 10000) {
+            nonDefaultConfigurations.add("backpressure object threshold of `" + connection.getBackPressureObjectThreshold() + "`");
+        }
+
+        if (nonDefaultConfigurations.size() > 0) {
+            message += ". The connection is configured with " + String.join(", ", nonDefaultConfigurations);
+        }
+
+        out.println(message);
+    }
+
+    static String printVFCChanges(VersionedFlowCoordinates vfcBefore, VersionedFlowCoordinates vfcAfter) {
+        List<String> changes = new ArrayList<>();
+        processVFCChange(vfcBefore.getBranch(), vfcAfter.getBranch(), "branch", changes);
+        processVFCChange(vfcBefore.getBucketId(), vfcAfter.getBucketId(), "bucket", changes);
+        processVFCChange(vfcBefore.getFlowId(), vfcAfter.getFlowId(), "flow ID", changes);
+        processVFCChange(vfcBefore.getVersion(), vfcAfter.getVersion(), "version", changes);
+        processVFCChange(vfcBefore.getRegistryId(), vfcAfter.getRegistryId(), "registry ID", changes);
+        processVFCChange(vfcBefore.getStorageLocation(), vfcAfter.getStorageLocation(), "storage location", changes);
+        return String.join(", ", changes);
+    }
+
+    static void processVFCChange(String valueA, String valueB, String elementName, List<String> changes) {
+        if (Objects.equals(valueA, valueB)) {
+            if (valueA != null) {
+                changes.add(elementName + " unchanged (`" + valueA + "`)");
+            }
+        } else {
+            changes.add(elementName + " changed from `" + valueA + "` to `" + valueB + "`");
+        }
+    }
+
+    /**
+     * @param diffContext the number of unchanged lines around the changed lines of multiline values,
+     *                    negative to print both multiline values in full
+     */
+    static String printFromTo(final String from, final String to, final int diffContext) {
+        if (isMultiline(from) || isMultiline(to)) {
+            final String hunks = diffContext >= 0 ? LineDiff.unified(from, to, diffContext) : null;
+            if (hunks == null || hunks.isEmpty()) {
+                // the lines are the same when only the line endings or the final line break differ
+                final String fromTo = "\n```\n" + from + "\n```\nto\n```\n" + to + "\n```";
+                return hunks == null ? fromTo : fromTo + "\n_Only the line endings have changed._";
+            }
+            return "\n```diff\n" + hunks + "```";
+        }
+        return "`" + from + "` to `" + to + "`";
+    }
+
+    static boolean isEmpty(final String string) {
+        return string == null || string.isEmpty();
+    }
+
+    static boolean isMultiline(String str) {
+        if (str == null) {
+            return false;
+        } else {
+            return str.contains("\n") || str.contains("\r");
+        }
+    }
+
+    static String substringAfterLast(final String str, final String separator) {
+        if (str == null || str.isEmpty() || separator == null || separator.isEmpty()) {
+            return str;
+        }
+
+        final int pos = str.lastIndexOf(separator);
+
+        if (pos == -1) {
+            return str;
+        }
+
+        return str.substring(pos + separator.length());
+    }
+}
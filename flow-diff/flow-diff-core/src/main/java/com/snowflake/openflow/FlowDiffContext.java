@@ -0,0 +1,269 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleCache;
+import com.snowflake.openflow.checkstyle.CheckstyleViolation;
+import com.snowflake.openflow.diff.DifferenceIndex;
+import com.snowflake.openflow.diff.SharedSubflows;
+import com.snowflake.openflow.diff.SharedSubflows.SharedChange;
+import com.snowflake.openflow.diff.VersionedFlowChanges;
+import com.snowflake.openflow.snapshot.FlowIndex;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State gathered while comparing one pair of flow snapshots. Each flow gets its own context
+ * (including its own output buffer) so that several flows can be compared concurrently and
+ * their reports printed afterwards in the order of the input.
+ */
+public class FlowDiffContext {
+
+    private static final SnapshotLoader DEFAULT_SNAPSHOT_LOADER = new SnapshotLoader();
+
+    private final FlowDiffOptions options;
+    private final SnapshotLoader snapshotLoader;
+    private final ByteArrayOutputStream outputBuffer = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(outputBuffer, true, StandardCharsets.UTF_8);
+
+    private String flowName = "";
+    private FlowIndex flowIndexA;
+    private FlowIndex flowIndexB;
+    private DifferenceIndex differenceIndex = DifferenceIndex.empty();
+    private List<CheckstyleViolation> checkstyleViolations;
+    private boolean checkstyleViolationsFound;
+    private CheckstyleCache checkstyleCache;
+    private boolean resultReused;
+    private long queueWaitMillis;
+    private Deadline deadline = Deadline.none();
+    private DeadlineExceededException truncation;
+    private VersionedFlowChanges versionedFlowChanges = new VersionedFlowChanges();
+    private SharedSubflows sharedSubflows = new SharedSubflows();
+    private List<SharedChange> sharedChanges = List.of();
+
+    public FlowDiffContext() {
+        this(new FlowDiffOptions(), DEFAULT_SNAPSHOT_LOADER);
+    }
+
+    /**
+     * @param options the options of the run this flow belongs to
+     * @param snapshotLoader the loader shared by all the flows of the run
+     */
+    public FlowDiffContext(final FlowDiffOptions options, final SnapshotLoader snapshotLoader) {
+        this.options = options;
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    public FlowDiffOptions getOptions() {
+        return options;
+    }
+
+    public SnapshotLoader getSnapshotLoader() {
+        return snapshotLoader;
+    }
+
+    /**
+     * @return the stream the report of this flow is written to
+     */
+    public PrintStream out() {
+        return out;
+    }
+
+    /**
+     * @return the report written so far for this flow
+     */
+    public String getOutput() {
+        out.flush();
+        return outputBuffer.toString(StandardCharsets.UTF_8);
+    }
+
+    public String getFlowName() {
+        return flowName;
+    }
+
+    public void setFlowName(final String flowName) {
+        this.flowName = flowName;
+    }
+
+    /**
+     * @return the index of the original version of the flow, null if there is no original version
+     */
+    public FlowIndex getFlowIndexA() {
+        return flowIndexA;
+    }
+
+    public void setFlowIndexA(final FlowIndex flowIndexA) {
+        this.flowIndexA = flowIndexA;
+    }
+
+    /**
+     * @return the index of the new version of the flow
+     */
+    public FlowIndex getFlowIndexB() {
+        return flowIndexB;
+    }
+
+    public void setFlowIndexB(final FlowIndex flowIndexB) {
+        this.flowIndexB = flowIndexB;
+    }
+
+    /**
+     * @return the parameter contexts of the new version of the flow, by name
+     */
+    public Map<String, VersionedParameterContext> getParameterContexts() {
+        return flowIndexB == null ? Map.of() : flowIndexB.getParameterContexts();
+    }
+
+    /**
+     * @return the process groups of the new version of the flow, by identifier
+     */
+    public Map<String, VersionedProcessGroup> getProcessGroups() {
+        return flowIndexB == null ? Map.of() : flowIndexB.getProcessGroups();
+    }
+
+    /**
+     * @return the differences found in this flow, grouped by process group and component
+     */
+    public DifferenceIndex getDifferenceIndex() {
+        return differenceIndex;
+    }
+
+    public void setDifferenceIndex(final DifferenceIndex differenceIndex) {
+        this.differenceIndex = differenceIndex;
+    }
+
+    /**
+     * @return the checkstyle violations of the new version of the flow, null if checkstyle was not executed
+     */
+    public List<CheckstyleViolation> getCheckstyleViolations() {
+        return checkstyleViolations;
+    }
+
+    public void setCheckstyleViolations(final List<CheckstyleViolation> checkstyleViolations) {
+        this.checkstyleViolations = checkstyleViolations;
+    }
+
+    /**
+     * @return the violations of the previous evaluations of checkstyle on the flow, null if they are not kept
+     */
+    public CheckstyleCache getCheckstyleCache() {
+        return checkstyleCache;
+    }
+
+    public void setCheckstyleCache(final CheckstyleCache checkstyleCache) {
+        this.checkstyleCache = checkstyleCache;
+    }
+
+    public boolean hasCheckstyleViolations() {
+        return checkstyleViolationsFound;
+    }
+
+    public void setCheckstyleViolationsFound(final boolean checkstyleViolationsFound) {
+        this.checkstyleViolationsFound = checkstyleViolationsFound;
+    }
+
+    /**
+     * @return true if the report of this flow was taken from the result store of a previous run
+     */
+    public boolean isResultReused() {
+        return resultReused;
+    }
+
+    public void setResultReused(final boolean resultReused) {
+        this.resultReused = resultReused;
+    }
+
+    /**
+     * @return the time this flow waited for enough heap to be compared, see {@link HeapAdmission}
+     */
+    public long getQueueWaitMillis() {
+        return queueWaitMillis;
+    }
+
+    public void setQueueWaitMillis(final long queueWaitMillis) {
+        this.queueWaitMillis = queueWaitMillis;
+    }
+
+    /**
+     * @return the time budget of the comparison of this flow
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(final Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return true if the time budget of this flow was exhausted and its report is incomplete
+     */
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+
+    /**
+     * @return the reason why the report of this flow is incomplete, null if it is complete
+     */
+    public DeadlineExceededException getTruncation() {
+        return truncation;
+    }
+
+    public void setTruncation(final DeadlineExceededException truncation) {
+        this.truncation = truncation;
+    }
+
+    /**
+     * @return the changes of the versioned flows referenced by versioned child groups, shared by all the flows of the run
+     */
+    public VersionedFlowChanges getVersionedFlowChanges() {
+        return versionedFlowChanges;
+    }
+
+    public void setVersionedFlowChanges(final VersionedFlowChanges versionedFlowChanges) {
+        this.versionedFlowChanges = versionedFlowChanges;
+    }
+
+    /**
+     * @return the changes of the versioned child groups shared by the flows of the run
+     */
+    public SharedSubflows getSharedSubflows() {
+        return sharedSubflows;
+    }
+
+    public void setSharedSubflows(final SharedSubflows sharedSubflows) {
+        this.sharedSubflows = sharedSubflows;
+    }
+
+    /**
+     * @return the shared changes of the versioned child groups of this flow, listed once for the whole run
+     */
+    public List<SharedChange> getSharedChanges() {
+        return sharedChanges;
+    }
+
+    public void setSharedChanges(final List<SharedChange> sharedChanges) {
+        this.sharedChanges = sharedChanges;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.diff.VersionedFlowChanges;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.snowflake.openflow.snapshot.SnapshotLoader.SnapshotPair;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Entry point to embed the comparison of flows in a long-running service instead of running the
+ * command line once per comparison. An engine is thread-safe and may be shared by any number of
+ * concurrent comparisons: the only state it holds is its options and its {@link SnapshotLoader},
+ * everything else belongs to a single call.
+ * <p>
+ * The options must not be modified once the engine is created, the {@code parallelism},
+ * {@code cache-results} and {@code history} options only apply to the command line.
+ * <p>
+ * With a {@code timeout}, the parse and the comparison of NiFi cannot be interrupted: a stage
+ * reaching the deadline is abandoned and keeps its thread, and its memory, until it returns. A
+ * service should not accept new comparisons while {@link #getAbandonedStages()} is positive.
+ */
+public class FlowDiffEngine implements Closeable {
+
+    private final FlowDiffOptions options;
+    private final SnapshotLoader snapshotLoader;
+
+    public FlowDiffEngine() throws IOException {
+        this(new FlowDiffOptions());
+    }
+
+    public FlowDiffEngine(final FlowDiffOptions options) throws IOException {
+        this.options = Objects.requireNonNull(options);
+        this.snapshotLoader = FlowDiff.createSnapshotLoader(options);
+    }
+
+    /**
+     * @param locationA the original version of the flow, a path or a {@code <rev>:<path>} spec with the
+     *                  {@code git-objects} option, null or missing if the flow is new
+     * @param locationB the new version of the flow
+     * @param checkstyleEnabled whether checkstyle is executed on the new version
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @return the result of the comparison
+     */
+    public FlowDiffResult compare(final String locationA, final String locationB, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig) throws IOException {
+        final FlowDiffContext context = newContext();
+        return compare(context, "`" + locationB + "`", () -> snapshotLoader.loadPair(locationA, locationB), checkstyleEnabled, rulesConfig);
+    }
+
+    /**
+     * Compares snapshots already in memory, such as the versions held by a flow registry. The snapshots
+     * are indexed in place, and restricted to the process groups in scope when the checkstyle
+     * configuration defines scopes for the flow.
+     *
+     * @param snapshotA the original version of the flow, null if the flow is new
+     * @param snapshotB the new version of the flow
+     * @param checkstyleEnabled whether checkstyle is executed on the new version
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @return the result of the comparison
+     */
+    public FlowDiffResult compare(final RegisteredFlowSnapshot snapshotA, final RegisteredFlowSnapshot snapshotB, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig) throws IOException {
+        final FlowDiffContext context = newContext();
+        final SnapshotPair snapshots = new SnapshotPair(snapshotA == null ? null : new FlowSnapshotContainer(snapshotA),
+                new FlowSnapshotContainer(snapshotB));
+        return compare(context, "Unnamed Flow", () -> snapshots, checkstyleEnabled, rulesConfig);
+    }
+
+    /**
+     * @return the number of stages of the comparisons of this engine abandoned once their deadline was
+     *         reached whose thread is still running
+     */
+    public int getAbandonedStages() {
+        return snapshotLoader.getAbandonedStages().get();
+    }
+
+    private FlowDiffContext newContext() {
+        final FlowDiffContext context = new FlowDiffContext(options, snapshotLoader);
+        context.setDeadline(Deadline.after(options.getFlowTimeoutMillis(), snapshotLoader.getAbandonedStages()));
+        // the changes of the versioned flows are only shared within a call so that they do not
+        // accumulate for the lifetime of the engine
+        context.setVersionedFlowChanges(new VersionedFlowChanges());
+        return context;
+    }
+
+    private static FlowDiffResult compare(final FlowDiffContext context, final String location, final Callable<SnapshotPair> snapshots,
+            final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig) throws IOException {
+        final Set<FlowDifference> diffs = FlowDiff.executeFlowDiffForOneFlow(context, location, snapshots, checkstyleEnabled, rulesConfig);
+        FlowDiff.printSharedChanges(context.out(), List.of(context));
+
+        return new FlowDiffResult(context.getFlowName(),
+                diffs == null ? List.of() : List.copyOf(diffs),
+                context.getCheckstyleViolations() == null ? List.of() : List.copyOf(context.getCheckstyleViolations()),
+                diffs == null && !context.isTruncated(),
+                context.isTruncated(),
+                context.getOutput());
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotLoader.close();
+    }
+}
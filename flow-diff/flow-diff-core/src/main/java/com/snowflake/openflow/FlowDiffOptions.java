@@ -0,0 +1,421 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import org.apache.nifi.registry.flow.diff.FlowComparatorVersionedStrategy;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Run-level options given as named arguments ({@code --name=value}) after the positional
+ * arguments of the action.
+ */
+public class FlowDiffOptions {
+
+    static final String OPTION_PREFIX = "--";
+    // more lines of context than any value holds, low enough for the hunks to be computed without overflow
+    static final int MAX_DIFF_CONTEXT = 100_000;
+
+    private int parallelism = 1;
+    private double heapFraction = 0.75;
+    private int diffContext = 3;
+    private int summaryThreshold = 500;
+    private boolean semanticLoad = false;
+    private boolean deduplicateLoad = false;
+    private Path cacheDirectory;
+    private long cacheMaxSizeMb = 512;
+    private long memoryCacheSizeMb = 0;
+    private boolean pruneUnchangedGroups = false;
+    private boolean cacheResults = false;
+    private long flowTimeoutMillis = 0;
+    private long runTimeoutMillis = 0;
+    private FlowComparatorVersionedStrategy versionedStrategy = FlowComparatorVersionedStrategy.DEEP;
+    private boolean versionedFlowChanges = false;
+    private boolean sharedSubflows = false;
+    private boolean gitObjects = false;
+    private String history;
+    private int servePort = -1;
+    private String daemonAddress;
+    private boolean watch = false;
+    private boolean train = false;
+
+    public static FlowDiffOptions fromArguments(final String[] args) {
+        final Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!isOption(arg)) {
+                continue;
+            }
+            final int separator = arg.indexOf('=');
+            final String name = separator < 0 ? arg.substring(OPTION_PREFIX.length()) : arg.substring(OPTION_PREFIX.length(), separator);
+            final String value = separator < 0 ? "true" : arg.substring(separator + 1).trim();
+            // empty values are passed by the action when an optional input is not set
+            if (!value.isEmpty()) {
+                values.put(name, value);
+            }
+        }
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        if (values.containsKey("parallelism")) {
+            options.setParallelism(Integer.parseInt(values.get("parallelism")));
+        }
+        if (values.containsKey("heap-fraction")) {
+            options.setHeapFraction(Double.parseDouble(values.get("heap-fraction")));
+        }
+        if (values.containsKey("semantic-load")) {
+            options.setSemanticLoad(Boolean.parseBoolean(values.get("semantic-load")));
+        }
+        if (values.containsKey("deduplicate-load")) {
+            options.setDeduplicateLoad(Boolean.parseBoolean(values.get("deduplicate-load")));
+        }
+        if (values.containsKey("cache-dir")) {
+            options.setCacheDirectory(Path.of(values.get("cache-dir")));
+        }
+        if (values.containsKey("cache-max-size")) {
+            options.setCacheMaxSizeMb(Long.parseLong(values.get("cache-max-size")));
+        }
+        if (values.containsKey("memory-cache-size")) {
+            options.setMemoryCacheSizeMb(Long.parseLong(values.get("memory-cache-size")));
+        }
+        if (values.containsKey("prune-unchanged-groups")) {
+            options.setPruneUnchangedGroups(Boolean.parseBoolean(values.get("prune-unchanged-groups")));
+        }
+        if (values.containsKey("cache-results")) {
+            options.setCacheResults(Boolean.parseBoolean(values.get("cache-results")));
+        }
+        if (values.containsKey("summary-threshold")) {
+            options.setSummaryThreshold(Integer.parseInt(values.get("summary-threshold")));
+        }
+        if (values.containsKey("diff-context")) {
+            options.setDiffContext(Integer.parseInt(values.get("diff-context")));
+        }
+        if (values.containsKey("flow-timeout")) {
+            options.setFlowTimeoutMillis(Long.parseLong(values.get("flow-timeout")));
+        }
+        if (values.containsKey("run-timeout")) {
+            options.setRunTimeoutMillis(Long.parseLong(values.get("run-timeout")));
+        }
+        if (values.containsKey("versioned-strategy")) {
+            options.setVersionedStrategy(FlowComparatorVersionedStrategy.valueOf(values.get("versioned-strategy").toUpperCase(Locale.ROOT)));
+        }
+        if (values.containsKey("versioned-flow-changes")) {
+            options.setVersionedFlowChanges(Boolean.parseBoolean(values.get("versioned-flow-changes")));
+        }
+        if (values.containsKey("shared-subflows")) {
+            options.setSharedSubflows(Boolean.parseBoolean(values.get("shared-subflows")));
+        }
+        if (values.containsKey("git-objects")) {
+            options.setGitObjects(Boolean.parseBoolean(values.get("git-objects")));
+        }
+        if (values.containsKey("history")) {
+            options.setHistory(values.get("history"));
+        }
+        if (values.containsKey("serve")) {
+            options.setServePort(Integer.parseInt(values.get("serve")));
+        }
+        if (values.containsKey("daemon")) {
+            options.setDaemonAddress(values.get("daemon"));
+        }
+        if (values.containsKey("watch")) {
+            options.setWatch(Boolean.parseBoolean(values.get("watch")));
+        }
+        if (values.containsKey("train")) {
+            options.setTrain(Boolean.parseBoolean(values.get("train")));
+        }
+        return options;
+    }
+
+    /**
+     * @return the given arguments without the named options
+     */
+    public static String[] positionalArguments(final String[] args) {
+        return Arrays.stream(args).filter(arg -> !isOption(arg)).toArray(String[]::new);
+    }
+
+    private static boolean isOption(final String arg) {
+        return arg != null && arg.startsWith(OPTION_PREFIX);
+    }
+
+    /**
+     * @return the maximum number of flows compared concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the fraction of the maximum heap the flows compared concurrently are estimated to use at most,
+     *         0 to compare them without admission control, see {@link HeapAdmission}
+     */
+    public double getHeapFraction() {
+        return heapFraction;
+    }
+
+    public void setHeapFraction(final double heapFraction) {
+        this.heapFraction = heapFraction;
+    }
+
+    /**
+     * @return true if layout-only fields (position, size, style, bend points, z-index) are skipped while parsing
+     */
+    public boolean isSemanticLoad() {
+        return semanticLoad;
+    }
+
+    public void setSemanticLoad(final boolean semanticLoad) {
+        this.semanticLoad = semanticLoad;
+    }
+
+    /**
+     * @return true if both versions of a flow share their identical strings, bundles and property maps in memory
+     */
+    public boolean isDeduplicateLoad() {
+        return deduplicateLoad;
+    }
+
+    public void setDeduplicateLoad(final boolean deduplicateLoad) {
+        this.deduplicateLoad = deduplicateLoad;
+    }
+
+    /**
+     * @return the directory of the on-disk cache of parsed snapshots, or null if the cache is disabled
+     */
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(final Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @return the maximum size of the snapshot cache in megabytes
+     */
+    public long getCacheMaxSizeMb() {
+        return cacheMaxSizeMb;
+    }
+
+    public void setCacheMaxSizeMb(final long cacheMaxSizeMb) {
+        this.cacheMaxSizeMb = cacheMaxSizeMb;
+    }
+
+    /**
+     * @return the maximum size in megabytes of the most recently used parsed snapshots kept in memory,
+     *         0 to not keep any, see {@link com.snowflake.openflow.snapshot.SnapshotCache}
+     */
+    public long getMemoryCacheSizeMb() {
+        return memoryCacheSizeMb;
+    }
+
+    public void setMemoryCacheSizeMb(final long memoryCacheSizeMb) {
+        this.memoryCacheSizeMb = memoryCacheSizeMb;
+    }
+
+    /**
+     * @return true if the process groups with the same hash in both versions are not handed to the comparator
+     */
+    public boolean isPruneUnchangedGroups() {
+        return pruneUnchangedGroups;
+    }
+
+    public void setPruneUnchangedGroups(final boolean pruneUnchangedGroups) {
+        this.pruneUnchangedGroups = pruneUnchangedGroups;
+    }
+
+    /**
+     * @return true if the reports of the flows are stored in the cache directory and reused by the next runs
+     */
+    public boolean isCacheResults() {
+        return cacheResults;
+    }
+
+    public void setCacheResults(final boolean cacheResults) {
+        this.cacheResults = cacheResults;
+    }
+
+    /**
+     * @return the number of changes of a flow above which the identical changes of several components
+     *         are listed together, 0 to always list the changes one by one
+     */
+    public int getSummaryThreshold() {
+        return summaryThreshold;
+    }
+
+    public void setSummaryThreshold(final int summaryThreshold) {
+        this.summaryThreshold = summaryThreshold;
+    }
+
+    /**
+     * @return the number of unchanged lines printed around the changed lines of multiline values,
+     *         negative to print both values in full
+     */
+    public int getDiffContext() {
+        return diffContext;
+    }
+
+    /**
+     * @param diffContext the number of unchanged lines, capped to 100000
+     */
+    public void setDiffContext(final int diffContext) {
+        this.diffContext = Math.min(diffContext, MAX_DIFF_CONTEXT);
+    }
+
+    /**
+     * @return the time budget in milliseconds of the comparison of one flow, zero for no budget
+     */
+    public long getFlowTimeoutMillis() {
+        return flowTimeoutMillis;
+    }
+
+    public void setFlowTimeoutMillis(final long flowTimeoutMillis) {
+        this.flowTimeoutMillis = flowTimeoutMillis;
+    }
+
+    /**
+     * @return the time budget in milliseconds of the comparison of all the flows, zero for no budget
+     */
+    public long getRunTimeoutMillis() {
+        return runTimeoutMillis;
+    }
+
+    public void setRunTimeoutMillis(final long runTimeoutMillis) {
+        this.runTimeoutMillis = runTimeoutMillis;
+    }
+
+    /**
+     * @return how the child process groups under version control are compared, {@code SHALLOW} to only
+     *         compare their coordinates without descending into their contents
+     */
+    public FlowComparatorVersionedStrategy getVersionedStrategy() {
+        return versionedStrategy;
+    }
+
+    public void setVersionedStrategy(final FlowComparatorVersionedStrategy versionedStrategy) {
+        this.versionedStrategy = versionedStrategy;
+    }
+
+    /**
+     * @return true if, with the {@code SHALLOW} strategy, the changes between the two versions of a
+     *         versioned child group are listed below the change of its coordinates
+     */
+    public boolean isVersionedFlowChanges() {
+        return versionedFlowChanges;
+    }
+
+    public void setVersionedFlowChanges(final boolean versionedFlowChanges) {
+        this.versionedFlowChanges = versionedFlowChanges;
+    }
+
+    /**
+     * @return true if, with the {@code DEEP} strategy, the changes of the versioned child groups are
+     *         compared once and listed once for all the flows of the run having the same change
+     */
+    public boolean isSharedSubflows() {
+        return sharedSubflows;
+    }
+
+    public void setSharedSubflows(final boolean sharedSubflows) {
+        this.sharedSubflows = sharedSubflows;
+    }
+
+    /**
+     * @return true if the flows given as {@code <rev>:<path>} specs are read from the object database
+     *         of the git repository of the working directory, see {@link com.snowflake.openflow.snapshot.GitObjectReader}
+     */
+    public boolean isGitObjects() {
+        return gitObjects;
+    }
+
+    public void setGitObjects(final boolean gitObjects) {
+        this.gitObjects = gitObjects;
+    }
+
+    /**
+     * @return the directory or the comma-separated paths of the versions of a flow to compare
+     *         consecutively, null to compare the flows given as positional arguments
+     */
+    public String getHistory() {
+        return history;
+    }
+
+    public void setHistory(final String history) {
+        this.history = history;
+    }
+
+    /**
+     * @return the port of the loopback address on which the flows are compared for the clients
+     *         connecting to it, 0 for any free port, negative to compare the flows of the arguments
+     */
+    public int getServePort() {
+        return servePort;
+    }
+
+    public void setServePort(final int servePort) {
+        this.servePort = servePort;
+    }
+
+    /**
+     * @return the {@code [host:]port} of the daemon the comparison is forwarded to, null to compare
+     *         the flows in this process
+     */
+    public String getDaemonAddress() {
+        return daemonAddress;
+    }
+
+    public void setDaemonAddress(final String daemonAddress) {
+        this.daemonAddress = daemonAddress;
+    }
+
+    /**
+     * @return true if the flows are compared again each time their files or the checkstyle
+     *         configuration change, until the process is stopped
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(final boolean watch) {
+        this.watch = watch;
+    }
+
+    /**
+     * @return true if the flows bundled in the command line are compared instead of the given ones,
+     *         to load the classes of a typical run while the class data sharing archive is recorded
+     */
+    public boolean isTrain() {
+        return train;
+    }
+
+    public void setTrain(final boolean train) {
+        this.train = train;
+    }
+
+    /**
+     * @return the options changing the contents of the report, part of the keys of the result store
+     */
+    String reportOptions() {
+        return "diff-context=" + diffContext + ",summary-threshold=" + summaryThreshold + ",versioned-strategy=" + versionedStrategy + ",versioned-flow-changes=" + versionedFlowChanges
+                + ",shared-subflows=" + sharedSubflows;
+    }
+}
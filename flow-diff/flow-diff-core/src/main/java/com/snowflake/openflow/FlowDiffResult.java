@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.checkstyle.CheckstyleViolation;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+
+import java.util.List;
+
+/**
+ * Outcome of the comparison of two versions of a flow by the {@link FlowDiffEngine}.
+ *
+ * @param flowName the name of the flow as written in the report
+ * @param differences the differences between both versions, ordered by process group and component
+ *                    like in the report, including the layout changes the report does not list
+ * @param checkstyleViolations the checkstyle violations of the new version, empty if checkstyle was not executed
+ * @param firstVersion true if there is no original version of the flow to compare with
+ * @param truncated true if the time budget of the flow was exhausted and the report is incomplete
+ * @param report the rendered Markdown report of the flow, as commented by the action
+ */
+public record FlowDiffResult(String flowName, List<FlowDifference> differences, List<CheckstyleViolation> checkstyleViolations,
+        boolean firstVersion, boolean truncated, String report) {
+
+    /**
+     * @return true if the new version of the flow violates at least one checkstyle rule
+     */
+    public boolean hasCheckstyleViolations() {
+        return !checkstyleViolations.isEmpty();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.Deadline.Stage;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.diff.SharedSubflows;
+import com.snowflake.openflow.diff.VersionedFlowChanges;
+import com.snowflake.openflow.snapshot.FlowTreeIndex;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.snowflake.openflow.snapshot.SnapshotLoader.SnapshotPair;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Compares the consecutive versions of a flow (v1 to v2, v2 to v3, ...), for release notes and
+ * audits. Each version is parsed once: the new version of a comparison is kept as the original
+ * version of the next one, so at most two snapshots are in memory, and the report of each
+ * comparison is written as soon as it is computed.
+ */
+final class FlowHistory {
+
+    private static final Comparator<Path> VERSION_ORDER = Comparator.comparing(path -> path.getFileName().toString(),
+            FlowHistory::compareNatural);
+
+    private FlowHistory() {
+    }
+
+    /**
+     * @param history a directory containing the versions of a flow, ordered by file name (v2 before
+     *                v10), or the comma-separated paths of the versions in order
+     * @return the paths of the versions in order
+     */
+    static List<Path> versions(final String history) throws IOException {
+        final Path directory = Path.of(history.trim());
+        if (!history.contains(",") && Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(FlowTreeIndex::isFlowFile)
+                        .sorted(VERSION_ORDER)
+                        .toList();
+            }
+        }
+        return Stream.of(history.split(",")).map(String::trim).filter(path -> !path.isEmpty()).map(Path::of).toList();
+    }
+
+    /**
+     * @param versions the paths of the versions of the flow in order
+     * @param checkstyleEnabled whether checkstyle is executed on each new version
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @param options the options of the run
+     * @param out the stream the reports are written to
+     * @return true if checkstyle violations were found in one of the versions
+     */
+    static boolean execute(final List<Path> versions, final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig,
+            final FlowDiffOptions options, final PrintStream out) throws IOException {
+        try (SnapshotLoader snapshotLoader = FlowDiff.createSnapshotLoader(options)) {
+            return execute(versions, checkstyleEnabled, rulesConfig, options, out, snapshotLoader);
+        }
+    }
+
+    static boolean execute(final List<Path> versions, final boolean checkstyleEnabled, final CheckstyleRulesConfig rulesConfig,
+            final FlowDiffOptions options, final PrintStream out, final SnapshotLoader snapshotLoader) throws IOException {
+        if (versions.size() < 2) {
+            out.println("");
+            out.println("At least two versions of the flow are needed to compare them.");
+            return false;
+        }
+
+        final Deadline runDeadline = Deadline.after(options.getRunTimeoutMillis());
+        final VersionedFlowChanges versionedFlowChanges = new VersionedFlowChanges();
+        boolean checkstyleViolationsFound = false;
+
+        FlowSnapshotContainer previous = null;
+        for (int i = 1; i < versions.size(); i++) {
+            final Path pathA = versions.get(i - 1);
+            final Path pathB = versions.get(i);
+            final FlowDiffContext context = new FlowDiffContext(options, snapshotLoader);
+            context.setDeadline(Deadline.after(options.getFlowTimeoutMillis(), snapshotLoader.getAbandonedStages()).within(runDeadline));
+            context.setVersionedFlowChanges(versionedFlowChanges);
+            // a shared change only applies to one comparison, it is listed right after it
+            context.setSharedSubflows(new SharedSubflows());
+
+            Set<FlowDifference> diffs = null;
+            FlowSnapshotContainer current = null;
+            try {
+                final FlowSnapshotContainer snapshotA = previous != null
+                        ? previous
+                        : context.getDeadline().call(Stage.PARSE, () -> snapshotLoader.load(pathA));
+                current = context.getDeadline().call(Stage.PARSE, () -> snapshotLoader.load(pathB));
+                diffs = FlowDiff.getDiff(context, new SnapshotPair(snapshotA, current), checkstyleEnabled, rulesConfig);
+            } catch (DeadlineExceededException e) {
+                context.setTruncation(e);
+            }
+            // the original version is released, the new one is the original version of the next comparison
+            previous = current;
+
+            final String flowName = context.getFlowName().isEmpty() ? "" : context.getFlowName() + " ";
+            context.setFlowName(flowName + "from `" + pathA.getFileName() + "` to `" + pathB.getFileName() + "`");
+            FlowDiff.printFlowDiff(context, diffs, checkstyleEnabled);
+
+            out.println("");
+            out.print(context.getOutput());
+            FlowDiff.printSharedChanges(out, List.of(context));
+            out.flush();
+            checkstyleViolationsFound = checkstyleViolationsFound || context.hasCheckstyleViolations();
+        }
+        return checkstyleViolationsFound;
+    }
+
+    /**
+     * Compares the names of two files, the sequences of digits being compared by their numeric value.
+     */
+    static int compareNatural(final String nameA, final String nameB) {
+        int indexA = 0;
+        int indexB = 0;
+        while (indexA < nameA.length() && indexB < nameB.length()) {
+            final char charA = nameA.charAt(indexA);
+            final char charB = nameB.charAt(indexB);
+            if (Character.isDigit(charA) && Character.isDigit(charB)) {
+                final int endA = endOfDigits(nameA, indexA);
+                final int endB = endOfDigits(nameB, indexB);
+                final String digitsA = stripLeadingZeros(nameA.substring(indexA, endA));
+                final String digitsB = stripLeadingZeros(nameB.substring(indexB, endB));
+                final int result = digitsA.length() != digitsB.length()
+                        ? Integer.compare(digitsA.length(), digitsB.length())
+                        : digitsA.compareTo(digitsB);
+                if (result != 0) {
+                    return result;
+                }
+                indexA = endA;
+                indexB = endB;
+            } else {
+                if (charA != charB) {
+                    return Character.compare(charA, charB);
+                }
+                indexA++;
+                indexB++;
+            }
+        }
+        final int result = Integer.compare(nameA.length() - indexA, nameB.length() - indexB);
+        return result != 0 ? result : nameA.compareTo(nameB);
+    }
+
+    private static int endOfDigits(final String name, final int start) {
+        int end = start;
+        while (end < name.length() && Character.isDigit(name.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static String stripLeadingZeros(final String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
+    }
+}
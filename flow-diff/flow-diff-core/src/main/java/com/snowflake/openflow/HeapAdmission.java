@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control of the flows compared concurrently, based on an estimate of the heap used by
+ * each pair of snapshots. A pair is admitted only while the estimated footprint of the admitted
+ * pairs fits the budget, a fraction of the maximum heap. A pair bigger than the whole budget is
+ * admitted alone rather than never.
+ */
+final class HeapAdmission {
+
+    // heap used by the parsed snapshot and the comparison, per byte of JSON
+    private static final long HEAP_BYTES_PER_FILE_BYTE = 6;
+    // typical compression ratio of a flow definition
+    private static final long GZIP_RATIO = 10;
+
+    private final long budgetBytes;
+    private long admittedBytes;
+
+    /**
+     * @param budgetBytes the maximum estimated footprint of the pairs processed concurrently
+     */
+    HeapAdmission(final long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * @param heapFraction the fraction of the maximum heap the pairs processed concurrently can use
+     * @return the admission control of this JVM
+     */
+    static HeapAdmission forHeapFraction(final double heapFraction) {
+        return new HeapAdmission((long) (Runtime.getRuntime().maxMemory() * heapFraction));
+    }
+
+    /**
+     * @param snapshotLoader the loader of the flows
+     * @param pathA the location of the original version of the flow, null or missing if the flow is new
+     * @param pathB the location of the new version of the flow
+     * @return the estimated heap footprint of the comparison of both versions
+     */
+    static long estimate(final SnapshotLoader snapshotLoader, final String pathA, final String pathB) throws IOException {
+        return estimate(pathA, snapshotLoader.contentSize(pathA)) + estimate(pathB, snapshotLoader.contentSize(pathB));
+    }
+
+    private static long estimate(final String path, final long size) {
+        return size == 0 ? 0 : size * HEAP_BYTES_PER_FILE_BYTE * (path.endsWith(".gz") ? GZIP_RATIO : 1);
+    }
+
+    /**
+     * Waits until the pair can be admitted.
+     *
+     * @param bytes the estimated footprint of the pair
+     * @return the time spent waiting in milliseconds
+     */
+    synchronized long acquire(final long bytes) throws InterruptedException {
+        final long start = System.nanoTime();
+        while (admittedBytes > 0 && admittedBytes + bytes > budgetBytes) {
+            wait();
+        }
+        admittedBytes += bytes;
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * @param bytes the estimated footprint of a pair given to {@link #acquire(long)}
+     */
+    synchronized void release(final long bytes) {
+        admittedBytes -= bytes;
+        notifyAll();
+    }
+
+    /**
+     * Resets the peak usage of the heap memory pools, see {@link #peakHeapBytes()}.
+     */
+    static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the peak usages of the heap memory pools since the last reset, an upper bound of the peak heap usage
+     */
+    static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.checkstyle;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Violations of the group-local rules (see {@link CheckstyleRule#isGroupLocal()}) by process group
+ * subtree, keyed by the hash of the subtree, so that the successive evaluations of the same flow only
+ * evaluate these rules on the process groups that changed in between. The entries not used by an
+ * evaluation are dropped at its end. A cache is meant for one flow and is not thread-safe.
+ */
+public class CheckstyleCache {
+
+    private Map<String, List<String>> entries = new HashMap<>();
+    private Map<String, List<String>> usedEntries = new HashMap<>();
+    private String flowName;
+    private CheckstyleRulesConfig rulesConfig;
+    private int hits;
+    private int misses;
+
+    /**
+     * Starts an evaluation, the entries are dropped if the flow name or the configuration changed.
+     */
+    public void begin(final String flowName, final CheckstyleRulesConfig rulesConfig) {
+        if (!Objects.equals(this.flowName, flowName) || !Objects.equals(this.rulesConfig, rulesConfig)) {
+            entries = new HashMap<>();
+        }
+        this.flowName = flowName;
+        this.rulesConfig = rulesConfig;
+        usedEntries = new HashMap<>();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @param key the rule, the identifier and the hash of the process group
+     * @return the violations of the process group and its descendants, null if they are not cached
+     */
+    public List<String> get(final String key) {
+        final List<String> violations = entries.get(key);
+        if (violations != null) {
+            usedEntries.put(key, violations);
+            hits++;
+        } else {
+            misses++;
+        }
+        return violations;
+    }
+
+    /**
+     * Keeps the entry of a process group whose ancestor was served from the cache.
+     *
+     * @param key the rule, the identifier and the hash of the process group
+     * @return false if the process group is not cached
+     */
+    public boolean keep(final String key) {
+        final List<String> violations = entries.get(key);
+        if (violations != null) {
+            usedEntries.put(key, violations);
+        }
+        return violations != null;
+    }
+
+    public void put(final String key, final List<String> violations) {
+        usedEntries.put(key, violations);
+    }
+
+    /**
+     * Ends an evaluation, only the entries it used are kept.
+     */
+    public void end() {
+        entries = usedEntries;
+        usedEntries = new HashMap<>();
+    }
+
+    /**
+     * @return the number of process group subtrees served from the cache by the current or last evaluation
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of process groups evaluated again by the current or last evaluation
+     */
+    public int getMisses() {
+        return misses;
+    }
+}
@@ -24,4 +24,13 @@ public interface CheckstyleRule {
 
     List<String> check(final FlowSnapshotContainer container, final String flowName, final CheckstyleRulesConfig.RuleConfig config);
 
+    /**
+     * @return true if the violations of a process group only depend on its own components, and if the
+     *         violations of its child groups are listed first, so that the rule can be evaluated on the
+     *         changed process groups only, see {@link CheckstyleCache}
+     */
+    default boolean isGroupLocal() {
+        return false;
+    }
+
 }
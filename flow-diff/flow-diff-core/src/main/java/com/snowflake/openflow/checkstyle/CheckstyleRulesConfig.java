@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.checkstyle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public record CheckstyleRulesConfig(
+        List<String> include,
+        List<String> exclude,
+        Map<String, RuleConfig> rules,
+        Map<String, ScopeConfig> scopes) {
+
+    public CheckstyleRulesConfig(final List<String> include, final List<String> exclude, final Map<String, RuleConfig> rules) {
+        this(include, exclude, rules, null);
+    }
+
+    /**
+     * @param flowName the name of the flow
+     * @return the process group scope of the flow, merging the scopes of all the matching flow name patterns,
+     *         or null if the whole flow is in scope
+     */
+    public ScopeConfig scopeFor(final String flowName) {
+        if (scopes == null || scopes.isEmpty()) {
+            return null;
+        }
+
+        final List<String> scopeIncludes = new ArrayList<>();
+        final List<String> scopeExcludes = new ArrayList<>();
+        boolean matched = false;
+        for (Map.Entry<String, ScopeConfig> entry : scopes.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && (flowName == null ? "" : flowName).matches(entry.getKey())) {
+                matched = true;
+                if (entry.getValue().include() != null) {
+                    scopeIncludes.addAll(entry.getValue().include());
+                }
+                if (entry.getValue().exclude() != null) {
+                    scopeExcludes.addAll(entry.getValue().exclude());
+                }
+            }
+        }
+        return matched ? new ScopeConfig(scopeIncludes, scopeExcludes) : null;
+    }
+
+    /**
+     * Process groups of a flow covered by the diff and by the rules, given as paths of process group
+     * names from the root group (for example {@code Ingest/Kafka}) where {@code *} matches any name and
+     * {@code **} any number of nested groups.
+     */
+    public record ScopeConfig(
+            List<String> include,
+            List<String> exclude) {
+    }
+
+    public record RuleConfig(
+            Map<String, Object> parameters,
+            Map<String, Map<String, Object>> overrides,
+            List<String> exclude,
+            Map<String, List<String>> componentExclusions) {
+
+        public boolean isComponentExcluded(final String flowName, final String componentId) {
+            if (componentId == null || componentExclusions == null || componentExclusions.isEmpty()) {
+                return false;
+            }
+
+            if (flowName == null || flowName.isEmpty()) {
+                return componentExclusions.containsKey(".*") && componentExclusions.get(".*") != null
+                        && componentExclusions.get(".*").contains(componentId);
+            }
+
+            return componentExclusions.entrySet().stream()
+                    .filter(entry -> entry.getKey() != null && flowName.matches(entry.getKey()))
+                    .anyMatch(entry -> entry.getValue() != null && entry.getValue().contains(componentId));
+        }
+    }
+}
@@ -32,6 +32,11 @@ public class BackpressureThresholdRule implements CheckstyleRule {
     // Captures the numeric portion at the start of NiFi backpressure size strings (e.g. "0 B").
     private static final Pattern LEADING_NUMBER_PATTERN = Pattern.compile("^\\s*([0-9]+(?:\\.[0-9]+)?)");
 
+    @Override
+    public boolean isGroupLocal() {
+        return true;
+    }
+
     @Override
     public List<String> check(final FlowSnapshotContainer container, final String flowName, final RuleConfig config) {
         final VersionedProcessGroup rootProcessGroup = container.getFlowSnapshot().getFlowContents();
@@ -28,6 +28,11 @@ import java.util.Map;
 
 public class ConcurrentTasksRule implements CheckstyleRule {
 
+    @Override
+    public boolean isGroupLocal() {
+        return true;
+    }
+
     @Override
     public List<String> check(final FlowSnapshotContainer container, final String flowName, final RuleConfig config) {
         final VersionedProcessGroup rootProcessGroup = container.getFlowSnapshot().getFlowContents();
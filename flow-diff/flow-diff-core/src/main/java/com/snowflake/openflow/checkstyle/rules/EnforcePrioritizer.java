@@ -33,6 +33,11 @@ public class EnforcePrioritizer implements CheckstyleRule {
 
     private final static String PARAMETER_NAME = "prioritizers";
 
+    @Override
+    public boolean isGroupLocal() {
+        return true;
+    }
+
     @Override
     public List<String> check(final FlowSnapshotContainer container, final String flowName, final RuleConfig config) {
         final VersionedProcessGroup rootProcessGroup = container.getFlowSnapshot().getFlowContents();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.diff;
+
+import org.apache.nifi.flow.Bundle;
+import org.apache.nifi.flow.VersionedComponent;
+import org.apache.nifi.registry.flow.diff.DifferenceType;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the differences applying the same change to many components, such as the bulletin level
+ * changed from {@code WARN} to {@code ERROR} on hundreds of processors after a bulk edit. Two
+ * differences are in the same group when they have the same difference type, field name and values
+ * before and after. Groups keep the order of their first difference, and only the first
+ * differences of a group are kept as samples, so the memory used does not depend on the size of the
+ * groups.
+ */
+public final class DifferenceAggregator {
+
+    private DifferenceAggregator() {
+    }
+
+    /**
+     * @param differences the differences in the order in which they are reported
+     * @param sampleSize the maximum number of differences kept as samples of each group
+     * @return the groups of differences, in the order of their first difference
+     */
+    public static List<DifferenceGroup> aggregate(final Collection<FlowDifference> differences, final int sampleSize) {
+        final Map<GroupKey, DifferenceGroup> groups = new LinkedHashMap<>();
+        for (FlowDifference difference : differences) {
+            final GroupKey key = new GroupKey(difference.getDifferenceType(), difference.getFieldName().orElse(null),
+                    valueKey(difference.getValueA()), valueKey(difference.getValueB()));
+            groups.computeIfAbsent(key, k -> new DifferenceGroup(new ArrayList<>())).add(difference, sampleSize);
+        }
+        return List.copyOf(groups.values());
+    }
+
+    // values without a meaningful equality are compared by what is rendered of them
+    private static String valueKey(final Object value) {
+        if (value instanceof Bundle bundle) {
+            return bundle.getGroup() + ":" + bundle.getArtifact() + ":" + bundle.getVersion();
+        }
+        if (value instanceof VersionedComponent component) {
+            return component.getIdentifier();
+        }
+        return String.valueOf(value);
+    }
+
+    private record GroupKey(DifferenceType type, String fieldName, String valueA, String valueB) {
+    }
+
+    /**
+     * Differences applying the same change to several components.
+     */
+    public static final class DifferenceGroup {
+
+        private final List<FlowDifference> samples;
+        private int size;
+
+        private DifferenceGroup(final List<FlowDifference> samples) {
+            this.samples = samples;
+        }
+
+        private void add(final FlowDifference difference, final int sampleSize) {
+            if (samples.size() < Math.max(1, sampleSize)) {
+                samples.add(difference);
+            }
+            size++;
+        }
+
+        /**
+         * @return the first difference of the group
+         */
+        public FlowDifference first() {
+            return samples.getFirst();
+        }
+
+        /**
+         * @return the first differences of the group, at most the sample size given to {@link #aggregate(Collection, int)}
+         */
+        public List<FlowDifference> samples() {
+            return samples;
+        }
+
+        /**
+         * @return the number of differences in the group
+         */
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.diff;
+
+import org.apache.nifi.flow.VersionedComponent;
+import org.apache.nifi.flow.VersionedParameter;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SequencedSet;
+
+/**
+ * Differences of a flow in a deterministic order, grouped by owning process group and by component.
+ * A sort key is computed once for every difference, from the path of its process group, the type,
+ * name and identifier of its component, the difference type, the description and finally both values
+ * and the identifier of the original component, so the order does not depend on hash codes and is the
+ * same from one run to another. Differences not owned by a
+ * process group, such as the parameter context changes, come first.
+ */
+public final class DifferenceIndex {
+
+    private static final DifferenceIndex EMPTY = new DifferenceIndex(List.of(), Collections.emptySortedSet());
+
+    private static final Comparator<SortKey> SORT_KEY_COMPARATOR = Comparator.comparing(SortKey::groupPath)
+            .thenComparing(SortKey::groupIdentifier)
+            .thenComparing(SortKey::componentType)
+            .thenComparing(SortKey::componentName)
+            .thenComparing(SortKey::componentIdentifier)
+            .thenComparingInt(SortKey::differenceType)
+            .thenComparing(SortKey::fieldName)
+            .thenComparing(SortKey::description)
+            .thenComparing(SortKey::valueA)
+            .thenComparing(SortKey::valueB)
+            .thenComparing(SortKey::componentIdentifierA);
+
+    private final List<GroupDifferences> groups;
+    private final SequencedSet<FlowDifference> differences;
+
+    private DifferenceIndex(final List<GroupDifferences> groups, final SequencedSet<FlowDifference> differences) {
+        this.groups = groups;
+        this.differences = differences;
+    }
+
+    public static DifferenceIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param differences the differences returned by the flow comparator
+     * @param processGroups the process groups of both versions of the flow, by identifier
+     * @return the index of the differences
+     */
+    public static DifferenceIndex of(final Collection<FlowDifference> differences, final Map<String, VersionedProcessGroup> processGroups) {
+        // equal differences are reported once
+        final List<SortKey> keys = new LinkedHashSet<>(differences).stream()
+                .map(difference -> SortKey.of(difference, processGroups))
+                .sorted(SORT_KEY_COMPARATOR)
+                .toList();
+
+        final List<GroupDifferences> groups = new ArrayList<>();
+        final SequencedSet<FlowDifference> orderedDifferences = new LinkedHashSet<>();
+        GroupDifferences group = null;
+        ComponentDifferences component = null;
+        for (SortKey key : keys) {
+            if (group == null || !Objects.equals(group.groupIdentifier(), key.groupIdentifier())) {
+                group = new GroupDifferences(key.groupIdentifier(), key.groupPath(), new ArrayList<>());
+                groups.add(group);
+                component = null;
+            }
+            if (component == null || !component.componentIdentifier().equals(key.componentIdentifier())) {
+                component = new ComponentDifferences(key.componentIdentifier(), component(key.difference()), new ArrayList<>());
+                group.components().add(component);
+            }
+            component.differences().add(key.difference());
+            orderedDifferences.add(key.difference());
+        }
+
+        return new DifferenceIndex(groups, Collections.unmodifiableSequencedSet(orderedDifferences));
+    }
+
+    /**
+     * @return the differences grouped by process group, in order
+     */
+    public List<GroupDifferences> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return all the differences, in order
+     */
+    public SequencedSet<FlowDifference> getDifferences() {
+        return differences;
+    }
+
+    public boolean isEmpty() {
+        return differences.isEmpty();
+    }
+
+    private static VersionedComponent component(final FlowDifference difference) {
+        return difference.getComponentB() == null ? difference.getComponentA() : difference.getComponentB();
+    }
+
+    private static String pathOf(final String groupIdentifier, final Map<String, VersionedProcessGroup> processGroups) {
+        final StringBuilder path = new StringBuilder();
+        VersionedProcessGroup group = groupIdentifier == null ? null : processGroups.get(groupIdentifier);
+        // the depth is bounded in case of an inconsistent snapshot
+        for (int depth = 0; group != null && depth < processGroups.size(); depth++) {
+            path.insert(0, "/" + Objects.toString(group.getName(), ""));
+            group = group.getGroupIdentifier() == null ? null : processGroups.get(group.getGroupIdentifier());
+        }
+        return path.toString();
+    }
+
+    /**
+     * @param groupIdentifier the identifier of the owning process group, empty for the differences not owned by a process group
+     * @param groupPath the names of the owning process group and of its ancestors, separated by slashes
+     * @param components the differences of each component of the group, in order
+     */
+    public record GroupDifferences(String groupIdentifier, String groupPath, List<ComponentDifferences> components) {
+    }
+
+    /**
+     * @param componentIdentifier the identifier of the component, empty if the differences have no component
+     * @param component the component, the version of the second flow if it exists in the second flow
+     * @param differences the differences of the component, in order
+     */
+    public record ComponentDifferences(String componentIdentifier, VersionedComponent component, List<FlowDifference> differences) {
+    }
+
+    private record SortKey(FlowDifference difference, String groupPath, String groupIdentifier, String componentType,
+            String componentName, String componentIdentifier, int differenceType, String fieldName, String description,
+            String valueA, String valueB, String componentIdentifierA) {
+
+        static SortKey of(final FlowDifference difference, final Map<String, VersionedProcessGroup> processGroups) {
+            final VersionedComponent component = component(difference);
+            final String groupIdentifier = component == null ? null : component.getGroupIdentifier();
+            return new SortKey(difference,
+                    pathOf(groupIdentifier, processGroups),
+                    Objects.toString(groupIdentifier, ""),
+                    component == null || component.getComponentType() == null ? "" : component.getComponentType().name(),
+                    component == null ? "" : Objects.toString(component.getName(), ""),
+                    component == null ? "" : Objects.toString(component.getIdentifier(), ""),
+                    difference.getDifferenceType().ordinal(),
+                    difference.getFieldName().orElse(""),
+                    Objects.toString(difference.getDescription(), ""),
+                    valueKey(difference.getValueA()),
+                    valueKey(difference.getValueB()),
+                    difference.getComponentA() == null ? "" : Objects.toString(difference.getComponentA().getIdentifier(), ""));
+        }
+
+        // the components and parameters have no string form of their own, it would be their identity hash code
+        private static String valueKey(final Object value) {
+            if (value instanceof VersionedComponent component) {
+                return Objects.toString(component.getIdentifier(), "");
+            } else if (value instanceof VersionedParameter parameter) {
+                return Objects.toString(parameter.getName(), "");
+            }
+            return Objects.toString(value, "");
+        }
+    }
+}
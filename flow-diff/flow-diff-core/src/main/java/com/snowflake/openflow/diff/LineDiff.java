@@ -0,0 +1,256 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line-level diff of two multiline values, rendered as the hunks of a unified diff. The lines are
+ * never extracted as strings: each value is indexed by the offsets of its lines and a hash of
+ * each line, and the hunks are appended from the original values. The edit script is computed
+ * with the Myers algorithm, after the common leading and trailing lines are trimmed.
+ */
+public final class LineDiff {
+
+    // beyond this number of edited lines, both values are rendered as a single replacement; the trace
+    // of the furthest points holds up to MAX_EDIT_DISTANCE^2 ints, 4 MB
+    private static final int MAX_EDIT_DISTANCE = 1024;
+
+    private LineDiff() {
+    }
+
+    /**
+     * @param valueA the original value, null for an empty value
+     * @param valueB the new value, null for an empty value
+     * @param context the number of unchanged lines around each change
+     * @return the hunks of the unified diff, each line ending with a line feed, empty if both values have the same lines
+     */
+    public static String unified(final String valueA, final String valueB, final int context) {
+        final Lines linesA = new Lines(valueA == null ? "" : valueA);
+        final Lines linesB = new Lines(valueB == null ? "" : valueB);
+        final boolean[] deleted = new boolean[linesA.size()];
+        final boolean[] inserted = new boolean[linesB.size()];
+        mark(linesA, linesB, deleted, inserted);
+        return render(linesA, linesB, blocks(deleted, inserted), Math.max(0, context));
+    }
+
+    private static void mark(final Lines linesA, final Lines linesB, final boolean[] deleted, final boolean[] inserted) {
+        int start = 0;
+        while (start < linesA.size() && start < linesB.size() && linesA.equals(start, linesB, start)) {
+            start++;
+        }
+        int endA = linesA.size();
+        int endB = linesB.size();
+        while (endA > start && endB > start && linesA.equals(endA - 1, linesB, endB - 1)) {
+            endA--;
+            endB--;
+        }
+
+        if (!myers(linesA, linesB, start, endA, endB, deleted, inserted)) {
+            Arrays.fill(deleted, start, endA, true);
+            Arrays.fill(inserted, start, endB, true);
+        }
+    }
+
+    // marks the deleted and inserted lines of the shortest edit script, false if it is longer than MAX_EDIT_DISTANCE
+    private static boolean myers(final Lines linesA, final Lines linesB, final int start, final int endA, final int endB,
+            final boolean[] deleted, final boolean[] inserted) {
+        final int n = endA - start;
+        final int m = endB - start;
+        final int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        // furthest points of the diagonals -d..d after each step d
+        final List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= max; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && linesA.equals(start + x, linesB, start + y)) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+                    backtrack(trace, n, m, start, deleted, inserted);
+                    return true;
+                }
+            }
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+        }
+        return false;
+    }
+
+    private static void backtrack(final List<int[]> trace, final int n, final int m, final int start,
+            final boolean[] deleted, final boolean[] inserted) {
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            final int[] previous = trace.get(d - 1);
+            final int k = x - y;
+            final boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+            final int previousK = down ? k + 1 : k - 1;
+            final int previousX = previous[previousK + d - 1];
+            final int previousY = previousX - previousK;
+            if (down) {
+                inserted[start + previousY] = true;
+            } else {
+                deleted[start + previousX] = true;
+            }
+            x = previousX;
+            y = previousY;
+        }
+    }
+
+    // consecutive changed lines, as [startA, endA, startB, endB]
+    private static List<int[]> blocks(final boolean[] deleted, final boolean[] inserted) {
+        final List<int[]> blocks = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < deleted.length || j < inserted.length) {
+            if ((i < deleted.length && deleted[i]) || (j < inserted.length && inserted[j])) {
+                final int startA = i;
+                final int startB = j;
+                while ((i < deleted.length && deleted[i]) || (j < inserted.length && inserted[j])) {
+                    if (i < deleted.length && deleted[i]) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+                blocks.add(new int[] {startA, i, startB, j});
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return blocks;
+    }
+
+    private static String render(final Lines linesA, final Lines linesB, final List<int[]> blocks, final int context) {
+        final StringBuilder hunks = new StringBuilder();
+        int first = 0;
+        while (first < blocks.size()) {
+            // blocks separated by at most twice the context are in the same hunk
+            int last = first;
+            while (last + 1 < blocks.size() && blocks.get(last + 1)[0] - blocks.get(last)[1] <= 2L * context) {
+                last++;
+            }
+
+            final int[] firstBlock = blocks.get(first);
+            final int[] lastBlock = blocks.get(last);
+            final int leading = Math.min(context, firstBlock[0]);
+            final int trailing = Math.min(context, linesA.size() - lastBlock[1]);
+            final int startA = firstBlock[0] - leading;
+            final int startB = firstBlock[2] - leading;
+            final int endA = lastBlock[1] + trailing;
+            final int endB = lastBlock[3] + trailing;
+            hunks.append("@@ -").append(range(startA, endA)).append(" +").append(range(startB, endB)).append(" @@\n");
+
+            int i = startA;
+            for (int index = first; index <= last; index++) {
+                final int[] block = blocks.get(index);
+                for (; i < block[0]; i++) {
+                    linesA.append(hunks.append(' '), i);
+                }
+                for (; i < block[1]; i++) {
+                    linesA.append(hunks.append('-'), i);
+                }
+                for (int j = block[2]; j < block[3]; j++) {
+                    linesB.append(hunks.append('+'), j);
+                }
+            }
+            for (; i < endA; i++) {
+                linesA.append(hunks.append(' '), i);
+            }
+            first = last + 1;
+        }
+        return hunks.toString();
+    }
+
+    private static String range(final int start, final int end) {
+        final int length = end - start;
+        // an empty range is given by the line before it
+        return (length == 0 ? start : start + 1) + "," + length;
+    }
+
+    /**
+     * The lines of a value, as offsets in the value and hashes.
+     */
+    private static final class Lines {
+
+        private final String value;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] hashes = new int[16];
+        private int size;
+
+        private Lines(final String value) {
+            this.value = value;
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    add(start, i);
+                    // CRLF is a single line break
+                    if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    start = i + 1;
+                }
+            }
+            if (start < value.length()) {
+                add(start, value.length());
+            }
+        }
+
+        private void add(final int start, final int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            hashes[size] = hash;
+            size++;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private boolean equals(final int line, final Lines other, final int otherLine) {
+            final int length = ends[line] - starts[line];
+            return hashes[line] == other.hashes[otherLine]
+                    && length == other.ends[otherLine] - other.starts[otherLine]
+                    && value.regionMatches(starts[line], other.value, other.starts[otherLine], length);
+        }
+
+        private void append(final StringBuilder out, final int line) {
+            out.append(value, starts[line], ends[line]).append('\n');
+        }
+    }
+}
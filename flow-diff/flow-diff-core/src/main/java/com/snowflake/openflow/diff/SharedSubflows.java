@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.diff;
+
+import org.apache.nifi.flow.VersionedFlowCoordinates;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Changes of the versioned child process groups shared by several flows of a run. The same child
+ * flow is usually embedded in many flows, and a pull request updating it changes all of them the
+ * same way: such a change, identified by the coordinates and the content hash of both versions of
+ * the child group, is compared and rendered once and then listed once for all the flows.
+ */
+public final class SharedSubflows {
+
+    private final Map<String, SharedChange> changes = new ConcurrentHashMap<>();
+
+    /**
+     * @param coordinatesA the coordinates of the child group in the first version
+     * @param hashA the content hash of the child group in the first version
+     * @param coordinatesB the coordinates of the child group in the second version
+     * @param hashB the content hash of the child group in the second version
+     * @return the key of the change
+     */
+    public static String key(final VersionedFlowCoordinates coordinatesA, final String hashA,
+            final VersionedFlowCoordinates coordinatesB, final String hashB) {
+        return coordinatesKey(coordinatesA) + "@" + hashA + ">" + coordinatesKey(coordinatesB) + "@" + hashB;
+    }
+
+    private static String coordinatesKey(final VersionedFlowCoordinates coordinates) {
+        return String.join("|", String.valueOf(coordinates.getRegistryId()), String.valueOf(coordinates.getStorageLocation()),
+                String.valueOf(coordinates.getBucketId()), String.valueOf(coordinates.getFlowId()),
+                String.valueOf(coordinates.getBranch()), String.valueOf(coordinates.getVersion()));
+    }
+
+    /**
+     * @param key the key of the change
+     * @param change the change, only created when there is no change with this key yet
+     * @return the change of this run with the given key
+     */
+    public SharedChange computeIfAbsent(final String key, final Supplier<SharedChange> change) {
+        // the comparison of the child groups is not run within the map
+        final SharedChange existing = changes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        final SharedChange created = change.get();
+        final SharedChange previous = changes.putIfAbsent(key, created);
+        return previous == null ? created : previous;
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * A change of a versioned child group. Its differences are rendered by the first flow that
+     * reports the change, the report is then reused by the other flows.
+     */
+    public static final class SharedChange {
+
+        private final String key;
+        private final String title;
+        private final DifferenceIndex differences;
+        private String report;
+
+        /**
+         * @param key the key of the change, see {@link SharedSubflows#key}
+         * @param title the title of the change in the comment
+         * @param differences the differences between both versions of the child group, may be null when the report is known
+         * @param report the report of the differences, null if it has not been rendered yet
+         */
+        public SharedChange(final String key, final String title, final DifferenceIndex differences, final String report) {
+            this.key = key;
+            this.title = title;
+            this.differences = differences;
+            this.report = report;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @param renderer renders the differences of the change
+         * @return the report of the change, rendered on the first call
+         */
+        public synchronized String getReport(final Supplier<String> renderer) {
+            if (report == null) {
+                report = renderer.get();
+            }
+            return report;
+        }
+
+        /**
+         * @return the report of the change or null if it has not been rendered
+         */
+        public synchronized String getReport() {
+            return report;
+        }
+
+        public DifferenceIndex getDifferences() {
+            return differences;
+        }
+    }
+}
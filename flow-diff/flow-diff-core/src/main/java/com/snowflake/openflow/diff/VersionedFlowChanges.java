@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.diff;
+
+import org.apache.nifi.flow.VersionedFlowCoordinates;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Changes between two versions of a flow referenced by versioned process groups, by pair of
+ * {@link VersionedFlowCoordinates}. A versioned flow is usually referenced by several groups and
+ * several flows, the changes of each pair of versions are computed once per run (twice at
+ * most when two flows compared concurrently reach the same pair at the same time).
+ */
+public final class VersionedFlowChanges {
+
+    private final Map<CoordinatesPair, DifferenceIndex> changes = new ConcurrentHashMap<>();
+
+    /**
+     * @param coordinatesA the coordinates of the first version
+     * @param coordinatesB the coordinates of the second version
+     * @param comparison the comparison of both versions, only executed for a pair without changes yet
+     * @return the changes between both versions
+     */
+    public DifferenceIndex computeIfAbsent(final VersionedFlowCoordinates coordinatesA, final VersionedFlowCoordinates coordinatesB,
+            final Supplier<DifferenceIndex> comparison) {
+        // the comparison may compute the changes of nested versioned flows, it is not run within the map
+        final CoordinatesPair pair = CoordinatesPair.of(coordinatesA, coordinatesB);
+        final DifferenceIndex existing = changes.get(pair);
+        if (existing != null) {
+            return existing;
+        }
+        final DifferenceIndex computed = comparison.get();
+        final DifferenceIndex previous = changes.putIfAbsent(pair, computed);
+        return previous == null ? computed : previous;
+    }
+
+    /**
+     * @param coordinatesA the coordinates of the first version
+     * @param coordinatesB the coordinates of the second version
+     * @return the changes between both versions or null if they have not been computed
+     */
+    public DifferenceIndex get(final VersionedFlowCoordinates coordinatesA, final VersionedFlowCoordinates coordinatesB) {
+        return changes.get(CoordinatesPair.of(coordinatesA, coordinatesB));
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    // the latest flag is ignored, it does not change the contents of a version
+    private record Coordinates(String registryId, String storageLocation, String bucketId, String flowId, String branch, String version) {
+
+        static Coordinates of(final VersionedFlowCoordinates coordinates) {
+            return new Coordinates(coordinates.getRegistryId(), coordinates.getStorageLocation(), coordinates.getBucketId(),
+                    coordinates.getFlowId(), coordinates.getBranch(), coordinates.getVersion());
+        }
+    }
+
+    private record CoordinatesPair(Coordinates coordinatesA, Coordinates coordinatesB) {
+
+        static CoordinatesPair of(final VersionedFlowCoordinates coordinatesA, final VersionedFlowCoordinates coordinatesB) {
+            return new CoordinatesPair(Coordinates.of(coordinatesA), Coordinates.of(coordinatesB));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Housekeeping shared by the on-disk caches: every cache keeps its entries in a directory named
+ * after {@link VersionInfo#fingerprint()}, writes them atomically and evicts the least recently
+ * used ones, using the modification time as the last access time.
+ */
+final class CacheDirectories {
+
+    static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private CacheDirectories() {
+    }
+
+    /**
+     * @param cacheDirectory the root directory of all the caches
+     * @param name the name of the cache
+     * @param entryExtension the extension of the entries of the cache
+     * @return the directory of the entries of the cache for the current version, created if needed
+     */
+    static Path versionDirectory(final Path cacheDirectory, final String name, final String entryExtension) throws IOException {
+        final Path parent = cacheDirectory.resolve(name);
+        final Path directory = parent.resolve(VersionInfo.fingerprint());
+        Files.createDirectories(directory);
+        removeOtherVersions(parent, directory, entryExtension);
+        return directory;
+    }
+
+    static void write(final Path directory, final String key, final String entryExtension, final EntryWriter writer) throws IOException {
+        final Path temporary = Files.createTempFile(directory, key, TEMPORARY_EXTENSION);
+        try (final OutputStream out = Files.newOutputStream(temporary)) {
+            writer.write(out);
+        }
+        Files.move(temporary, directory.resolve(key + entryExtension), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void touch(final Path entry) throws IOException {
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    static void evict(final Path directory, final String entryExtension, final long maxSizeBytes) throws IOException {
+        final List<Path> entries;
+        try (final Stream<Path> files = Files.list(directory)) {
+            entries = files.filter(file -> file.getFileName().toString().endsWith(entryExtension))
+                    .sorted(Comparator.comparing(CacheDirectories::lastModified).reversed())
+                    .toList();
+        }
+
+        long totalSize = 0;
+        for (Path entry : entries) {
+            totalSize += Files.size(entry);
+            if (totalSize > maxSizeBytes) {
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    private static void removeOtherVersions(final Path parent, final Path directory, final String entryExtension) throws IOException {
+        try (final Stream<Path> versions = Files.list(parent)) {
+            for (Path version : versions.filter(Files::isDirectory).filter(dir -> !dir.equals(directory)).toList()) {
+                boolean empty = true;
+                try (final Stream<Path> files = Files.list(version)) {
+                    for (Path file : files.toList()) {
+                        final String fileName = file.getFileName().toString();
+                        if (fileName.endsWith(entryExtension) || fileName.endsWith(TEMPORARY_EXTENSION)) {
+                            Files.deleteIfExists(file);
+                        } else {
+                            empty = false;
+                        }
+                    }
+                }
+                if (empty) {
+                    Files.deleteIfExists(version);
+                }
+            }
+        }
+    }
+
+    private static FileTime lastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            // entry removed concurrently, consider it as the least recently used
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import org.apache.nifi.controller.flow.VersionedDataflow;
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.registry.flow.RegisteredFlow;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adapts the {@link VersionedDataflow} of a NiFi instance ({@code flow.json.gz}) to a
+ * {@link RegisteredFlowSnapshot} so that it goes through the same comparison as the flow
+ * definitions. The root group becomes the contents of the flow and the parameter contexts are
+ * indexed by name. The controller-level services, reporting tasks, registry clients and
+ * parameter providers of the instance are not part of a flow definition and are not compared.
+ */
+final class DataflowAdapter {
+
+    private DataflowAdapter() {
+    }
+
+    /**
+     * @param dataflow the dataflow of a NiFi instance
+     * @return the equivalent snapshot, its flow being named after the root group
+     */
+    static RegisteredFlowSnapshot toSnapshot(final VersionedDataflow dataflow) {
+        final VersionedProcessGroup rootGroup = dataflow.getRootGroup() == null ? new VersionedProcessGroup() : dataflow.getRootGroup();
+
+        final RegisteredFlow flow = new RegisteredFlow();
+        flow.setIdentifier(rootGroup.getIdentifier());
+        flow.setName(rootGroup.getName() == null ? "" : rootGroup.getName());
+
+        final Map<String, VersionedParameterContext> parameterContexts = new HashMap<>();
+        if (dataflow.getParameterContexts() != null) {
+            for (VersionedParameterContext parameterContext : dataflow.getParameterContexts()) {
+                parameterContexts.put(parameterContext.getName(), parameterContext);
+            }
+        }
+
+        final RegisteredFlowSnapshot snapshot = new RegisteredFlowSnapshot();
+        snapshot.setFlow(flow);
+        snapshot.setFlowContents(rootGroup);
+        snapshot.setParameterContexts(parameterContexts);
+        snapshot.setExternalControllerServices(new HashMap<>());
+        return snapshot;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import org.apache.nifi.flow.VersionedComponent;
+import org.apache.nifi.flow.VersionedControllerService;
+import org.apache.nifi.flow.VersionedParameter;
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup tables of a snapshot built in a single pass over the flow: components by identifier,
+ * process groups by identifier with their parent group, and parameters by context and name. They
+ * replace the scans of the component and parameter collections while rendering the differences.
+ */
+public final class FlowIndex {
+
+    private final Map<String, VersionedComponent> components = new HashMap<>();
+    private final Map<String, VersionedProcessGroup> processGroups = new HashMap<>();
+    private final Map<String, String> parentGroups = new HashMap<>();
+    private final Map<String, VersionedParameterContext> parameterContexts = new HashMap<>();
+    private final Map<String, Map<String, VersionedParameter>> parameters = new HashMap<>();
+    private final Map<String, Integer> controllerServiceNames = new HashMap<>();
+
+    private FlowIndex() {
+    }
+
+    /**
+     * @param snapshot the snapshot to index
+     * @return the index of the snapshot
+     */
+    public static FlowIndex of(final RegisteredFlowSnapshot snapshot) {
+        final FlowIndex index = new FlowIndex();
+        if (snapshot.getFlowContents() != null) {
+            index.register(snapshot.getFlowContents(), null);
+        }
+        if (snapshot.getParameterContexts() != null) {
+            snapshot.getParameterContexts().forEach((name, parameterContext) -> {
+                index.parameterContexts.put(name, parameterContext);
+                final Map<String, VersionedParameter> contextParameters = new HashMap<>();
+                for (VersionedParameter parameter : nullToEmpty(parameterContext.getParameters())) {
+                    contextParameters.put(parameter.getName(), parameter);
+                }
+                index.parameters.put(name, contextParameters);
+            });
+        }
+        return index;
+    }
+
+    private void register(final VersionedProcessGroup group, final String parentIdentifier) {
+        components.put(group.getIdentifier(), group);
+        processGroups.put(group.getIdentifier(), group);
+        if (parentIdentifier != null) {
+            parentGroups.put(group.getIdentifier(), parentIdentifier);
+        }
+
+        registerAll(group.getProcessors());
+        registerAll(group.getControllerServices());
+        for (VersionedControllerService controllerService : nullToEmpty(group.getControllerServices())) {
+            if (controllerService.getName() != null) {
+                controllerServiceNames.merge(controllerService.getName(), 1, Integer::sum);
+            }
+        }
+        registerAll(group.getInputPorts());
+        registerAll(group.getOutputPorts());
+        registerAll(group.getFunnels());
+        registerAll(group.getLabels());
+        registerAll(group.getConnections());
+        registerAll(group.getRemoteProcessGroups());
+
+        for (VersionedProcessGroup child : nullToEmpty(group.getProcessGroups())) {
+            register(child, group.getIdentifier());
+        }
+    }
+
+    private void registerAll(final Collection<? extends VersionedComponent> groupComponents) {
+        for (VersionedComponent component : nullToEmpty(groupComponents)) {
+            components.put(component.getIdentifier(), component);
+        }
+    }
+
+    /**
+     * @return the component with the given identifier or null if there is none in this flow
+     */
+    public VersionedComponent getComponent(final String identifier) {
+        return identifier == null ? null : components.get(identifier);
+    }
+
+    /**
+     * @return the controller service with the given identifier or null if there is none in this flow
+     */
+    public VersionedControllerService getControllerService(final String identifier) {
+        return getComponent(identifier) instanceof VersionedControllerService controllerService ? controllerService : null;
+    }
+
+    /**
+     * @return true if several controller services of the flow have the given name
+     */
+    public boolean isAmbiguousControllerServiceName(final String name) {
+        return controllerServiceNames.getOrDefault(name, 0) > 1;
+    }
+
+    /**
+     * @return all the process groups of the flow, including the root group, by identifier
+     */
+    public Map<String, VersionedProcessGroup> getProcessGroups() {
+        return Collections.unmodifiableMap(processGroups);
+    }
+
+    public VersionedProcessGroup getProcessGroup(final String identifier) {
+        return identifier == null ? null : processGroups.get(identifier);
+    }
+
+    /**
+     * @return the parent of the given process group or null for the root group
+     */
+    public VersionedProcessGroup getParentGroup(final String identifier) {
+        return getProcessGroup(parentGroups.get(identifier));
+    }
+
+    /**
+     * @return all the parameter contexts of the flow, by name
+     */
+    public Map<String, VersionedParameterContext> getParameterContexts() {
+        return Collections.unmodifiableMap(parameterContexts);
+    }
+
+    public VersionedParameterContext getParameterContext(final String name) {
+        return name == null ? null : parameterContexts.get(name);
+    }
+
+    /**
+     * @return the parameter with the given name in the given context or null if there is none
+     */
+    public VersionedParameter getParameter(final String contextName, final String parameterName) {
+        final Map<String, VersionedParameter> contextParameters = contextName == null ? null : parameters.get(contextName);
+        return contextParameters == null ? null : contextParameters.get(parameterName);
+    }
+
+    private static <T> Collection<T> nullToEmpty(final Collection<T> collection) {
+        return collection == null ? Collections.emptySet() : collection;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the flow files found under a directory ({@code .json} and {@code .json.gz} files), used
+ * to compare two directory trees. Each file
+ * is read once to compute its SHA-256 and to extract its flow identifier with a streaming parser,
+ * without building the snapshot. Flows are paired by flow identifier so that added, removed and
+ * renamed files are handled, and pairs of byte-identical files are skipped without being parsed.
+ */
+public final class FlowTreeIndex {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final List<String> FLOW_EXTENSIONS = List.of(".json", ".json.gz");
+
+    private final Map<String, FlowFile> flows;
+
+    private FlowTreeIndex(final Map<String, FlowFile> flows) {
+        this.flows = flows;
+    }
+
+    /**
+     * Indexes both directory trees, the files of both trees being read concurrently.
+     *
+     * @param rootA the directory of the original versions of the flows
+     * @param rootB the directory of the new versions of the flows
+     * @param parallelism the number of files read concurrently
+     * @return the comparison of both trees
+     */
+    public static TreeComparison compare(final Path rootA, final Path rootB, final int parallelism) throws IOException {
+        final List<Path> filesA = list(rootA);
+        final List<Path> filesB = list(rootB);
+
+        final List<Future<FlowFile>> futuresA = new ArrayList<>();
+        final List<Future<FlowFile>> futuresB = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism))) {
+            filesA.forEach(file -> futuresA.add(executor.submit(() -> index(rootA, file))));
+            filesB.forEach(file -> futuresB.add(executor.submit(() -> index(rootB, file))));
+            return new FlowTreeIndex(byKey(get(futuresA))).compareTo(new FlowTreeIndex(byKey(get(futuresB))));
+        }
+    }
+
+    private TreeComparison compareTo(final FlowTreeIndex other) {
+        final List<String> pathsA = new ArrayList<>();
+        final List<String> pathsB = new ArrayList<>();
+        int added = 0;
+        int unchanged = 0;
+
+        final List<FlowFile> filesB = other.flows.values().stream().sorted(Comparator.comparing(FlowFile::relativePath)).toList();
+        for (FlowFile fileB : filesB) {
+            final FlowFile fileA = flows.get(fileB.key());
+            if (fileA != null && fileA.hash().equals(fileB.hash())) {
+                unchanged++;
+                continue;
+            }
+            if (fileA == null) {
+                added++;
+            }
+            pathsA.add(fileA == null ? null : fileA.path().toString());
+            pathsB.add(fileB.path().toString());
+        }
+
+        final List<FlowFile> removed = flows.values().stream()
+                .filter(fileA -> !other.flows.containsKey(fileA.key()))
+                .sorted(Comparator.comparing(FlowFile::relativePath))
+                .toList();
+        return new TreeComparison(pathsA, pathsB, added, removed, unchanged);
+    }
+
+    private static List<Path> list(final Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(FlowTreeIndex::isFlowFile)
+                    .toList();
+        }
+    }
+
+    /**
+     * @param path the path of a file
+     * @return true if the file is a flow definition or a NiFi dataflow, possibly gzip-compressed
+     */
+    public static boolean isFlowFile(final Path path) {
+        final String name = path.getFileName().toString();
+        return FLOW_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private static List<FlowFile> get(final List<Future<FlowFile>> futures) throws IOException {
+        final List<FlowFile> files = new ArrayList<>();
+        try {
+            for (Future<FlowFile> future : futures) {
+                files.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while indexing flows", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException("Failed to index flows", e.getCause());
+        }
+        return files;
+    }
+
+    private static Map<String, FlowFile> byKey(final List<FlowFile> files) {
+        // several files of a tree with the same flow identifier are paired by their relative path
+        final Map<String, Long> counts = files.stream()
+                .filter(file -> file.flowIdentifier() != null)
+                .collect(Collectors.groupingBy(FlowFile::flowIdentifier, Collectors.counting()));
+        final Map<String, FlowFile> flows = new HashMap<>();
+        for (FlowFile file : files) {
+            final boolean unique = file.flowIdentifier() != null && counts.get(file.flowIdentifier()) == 1;
+            final String key = unique ? file.flowIdentifier() : "path:" + file.relativePath();
+            flows.put(key, file.withKey(key));
+        }
+        return flows;
+    }
+
+    static FlowFile index(final Path root, final Path path) throws IOException {
+        final byte[] content = Files.readAllBytes(path);
+        final String relativePath = root.relativize(path).toString().replace('\\', '/');
+        return new FlowFile(null, flowIdentifier(content), relativePath, path, SnapshotCache.sha256(ByteBuffer.wrap(content)));
+    }
+
+    /**
+     * @param content the content of a snapshot file
+     * @return the identifier of the flow, from {@code flow.identifier} or {@code snapshotMetadata.flowIdentifier},
+     *         null if the content has none or is not a snapshot
+     */
+    static String flowIdentifier(final byte[] content) {
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+        try (JsonParser parser = SnapshotLoader.isGzip(buffer)
+                ? JSON_FACTORY.createParser(SnapshotLoader.decompress(buffer))
+                : JSON_FACTORY.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String metadataIdentifier = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                parser.nextToken();
+                if ("flow".equals(field)) {
+                    final String identifier = textField(parser, "identifier");
+                    if (identifier != null) {
+                        return identifier;
+                    }
+                } else if ("snapshotMetadata".equals(field)) {
+                    metadataIdentifier = textField(parser, "flowIdentifier");
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return metadataIdentifier;
+        } catch (IOException e) {
+            // not a snapshot, the file is paired by its path
+            return null;
+        }
+    }
+
+    private static String textField(final JsonParser parser, final String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+            if (name.equals(field) && token == JsonToken.VALUE_STRING) {
+                value = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key the key pairing the file with a file of the other tree, null until the tree is indexed
+     * @param flowIdentifier the identifier of the flow, null if the file has none
+     * @param relativePath the path of the file relative to the root of its tree
+     * @param path the path of the file
+     * @param hash the SHA-256 of the content of the file
+     */
+    public record FlowFile(String key, String flowIdentifier, String relativePath, Path path, String hash) {
+
+        FlowFile withKey(final String key) {
+            return new FlowFile(key, flowIdentifier, relativePath, path, hash);
+        }
+    }
+
+    /**
+     * @param pathsA the original versions of the flows to compare, null for an added flow
+     * @param pathsB the new versions of the flows to compare, in the order of their relative paths
+     * @param added the number of added flows
+     * @param removed the flows only found in the original tree
+     * @param unchanged the number of flows with identical files in both trees
+     */
+    public record TreeComparison(List<String> pathsA, List<String> pathsB, int added, List<FlowFile> removed, int unchanged) {
+    }
+}
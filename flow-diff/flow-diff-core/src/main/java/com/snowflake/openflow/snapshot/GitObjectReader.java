@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Reads files from the object database of a local git repository, without checking out the
+ * revision. Locations are {@code <rev>:<path>} specs such as {@code main:flows/flow.json} or
+ * {@code HEAD~1:./flow.json}. All the blobs are streamed through a single long-lived
+ * {@code git cat-file --batch} process, and their object identifiers through a
+ * {@code git cat-file --batch-check} process, both started on first use. The identifiers and the
+ * sizes of the blobs are read without their content.
+ */
+public class GitObjectReader implements Closeable {
+
+    private final Path repository;
+    private BatchProcess contents;
+    private BatchProcess objectIds;
+
+    /**
+     * @param repository a directory of the work tree of the repository, relative paths of specs starting with {@code ./} are resolved from it
+     */
+    public GitObjectReader(final Path repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param location the location of a flow
+     * @return true if the location is a {@code <rev>:<path>} spec, a drive letter of a Windows path is not mistaken for a revision
+     */
+    public static boolean isRevisionSpec(final String location) {
+        final int separator = location.indexOf(':');
+        return separator >= 0 && separator != 1 && location.indexOf('\n') < 0;
+    }
+
+    /**
+     * @param spec the {@code <rev>:<path>} spec of a file
+     * @return the content of the file
+     * @throws NoSuchFileException if the file does not exist in this revision
+     */
+    public synchronized ByteBuffer read(final String spec) throws IOException {
+        if (contents == null) {
+            contents = new BatchProcess(repository, true);
+        }
+        final long size = contents.request(spec);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(spec + " is too large to be read from git");
+        }
+        final byte[] content = contents.in.readNBytes((int) size);
+        // the content is followed by a line feed
+        if (content.length != size || contents.in.read() < 0) {
+            throw new EOFException("Unexpected end of the output of git cat-file for " + spec);
+        }
+        return ByteBuffer.wrap(content);
+    }
+
+    /**
+     * @param spec the {@code <rev>:<path>} spec of a file
+     * @return the identifier of the blob, which is a hash of its content, null if the file does not exist in this revision
+     */
+    public synchronized String objectId(final String spec) throws IOException {
+        try {
+            objectIds().request(spec);
+            return objectIds.objectId;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param spec the {@code <rev>:<path>} spec of a file
+     * @return the size of the file in bytes, -1 if the file does not exist in this revision
+     */
+    public synchronized long size(final String spec) throws IOException {
+        try {
+            return objectIds().request(spec);
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    private BatchProcess objectIds() throws IOException {
+        if (objectIds == null) {
+            objectIds = new BatchProcess(repository, false);
+        }
+        return objectIds;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (contents != null) {
+            contents.close();
+            contents = null;
+        }
+        if (objectIds != null) {
+            objectIds.close();
+            objectIds = null;
+        }
+    }
+
+    private static final class BatchProcess implements Closeable {
+
+        private final Process process;
+        private final OutputStream out;
+        private final InputStream in;
+        private final boolean withContents;
+        private String objectId;
+
+        private BatchProcess(final Path repository, final boolean withContents) throws IOException {
+            this.process = new ProcessBuilder("git", "cat-file", withContents ? "--batch" : "--batch-check")
+                    .directory(repository.toFile())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            this.out = process.getOutputStream();
+            this.in = new BufferedInputStream(process.getInputStream());
+            this.withContents = withContents;
+        }
+
+        // writes the spec and reads the header of the answer, "<oid> <type> <size>" or "<spec> missing"
+        private long request(final String spec) throws IOException {
+            out.write((spec + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            final String header = readLine();
+            if (header.endsWith(" missing") || header.endsWith(" ambiguous")) {
+                throw new NoSuchFileException(spec, null, header);
+            }
+            final String[] fields = header.split(" ");
+            if (fields.length != 3) {
+                throw new IOException("Unexpected output of git cat-file for " + spec + ": " + header);
+            }
+            final long size = Long.parseLong(fields[2]);
+            if (!"blob".equals(fields[1])) {
+                if (withContents) {
+                    in.skipNBytes(size + 1);
+                }
+                throw new IOException(spec + " is a " + fields[1] + ", not a file");
+            }
+            objectId = fields[0];
+            return size;
+        }
+
+        private String readLine() throws IOException {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("git cat-file exited with code " + exitCode());
+                }
+                line.write(b);
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        private String exitCode() {
+            try {
+                return String.valueOf(process.waitFor());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "unknown";
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // git cat-file exits once its input is closed
+            out.close();
+            exitCode();
+            in.close();
+        }
+    }
+}
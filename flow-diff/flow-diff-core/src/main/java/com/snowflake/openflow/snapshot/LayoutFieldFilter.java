@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.util.Set;
+
+/**
+ * Token filter dropping the fields that only describe the layout of the canvas. These fields
+ * are skipped by the parser so the corresponding objects are never created nor compared.
+ * <p>
+ * The filter follows the structure of the document: layout fields are only dropped on the
+ * components, never below them, such as in the properties of a processor whose names are chosen
+ * by the user.
+ */
+public class LayoutFieldFilter extends TokenFilter {
+
+    // fields holding the position, bend points, z-index and style of a component
+    static final Set<String> LAYOUT_FIELDS = Set.of("position", "bends", "zIndex", "style");
+
+    // fields holding the size of a label, only filtered on labels
+    static final Set<String> LABEL_SIZE_FIELDS = Set.of("width", "height");
+
+    // fields of a process group holding its components
+    static final Set<String> COMPONENT_FIELDS = Set.of("processGroups", "remoteProcessGroups", "processors", "inputPorts",
+            "outputPorts", "connections", "labels", "funnels", "controllerServices");
+
+    // fields of a snapshot, or of the dataflow of a NiFi instance, holding the root process group
+    static final Set<String> ROOT_GROUP_FIELDS = Set.of("flowContents", "rootGroup");
+
+    /**
+     * Filter of a whole snapshot or dataflow document.
+     */
+    public static final LayoutFieldFilter INSTANCE = new LayoutFieldFilter(Level.DOCUMENT);
+
+    private static final LayoutFieldFilter COMPONENT_INSTANCE = new LayoutFieldFilter(Level.COMPONENT);
+
+    private static final LayoutFieldFilter LABEL_INSTANCE = new LayoutFieldFilter(Level.LABEL);
+
+    private final Level level;
+
+    private LayoutFieldFilter(final Level level) {
+        this.level = level;
+    }
+
+    /**
+     * @return true if the field of a component only describes its layout
+     */
+    static boolean isLayoutField(final String name, final boolean label) {
+        return LAYOUT_FIELDS.contains(name) || (label && LABEL_SIZE_FIELDS.contains(name));
+    }
+
+    @Override
+    public TokenFilter includeProperty(final String name) {
+        if (level == Level.DOCUMENT) {
+            return ROOT_GROUP_FIELDS.contains(name) ? COMPONENT_INSTANCE : TokenFilter.INCLUDE_ALL;
+        }
+        if (isLayoutField(name, level == Level.LABEL)) {
+            return null;
+        }
+        if (COMPONENT_FIELDS.contains(name)) {
+            return "labels".equals(name) ? LABEL_INSTANCE : COMPONENT_INSTANCE;
+        }
+        // the value of any other field, such as the properties of a processor, is kept as is
+        return TokenFilter.INCLUDE_ALL;
+    }
+
+    @Override
+    protected boolean _includeScalar() {
+        return true;
+    }
+
+    // empty collections such as "processors": [] must be kept, the model would otherwise hold null values
+    @Override
+    public boolean includeEmptyArray(final boolean contentsFiltered) {
+        return true;
+    }
+
+    @Override
+    public boolean includeEmptyObject(final boolean contentsFiltered) {
+        return true;
+    }
+
+    private enum Level {
+        DOCUMENT,
+        COMPONENT,
+        LABEL
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import org.apache.nifi.flow.VersionedProcessGroup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Removes the process groups that are identical in both versions of a flow before they are handed
+ * to the flow comparator, using the process group hashes of {@link SnapshotHasher}. A child group is
+ * removed from both trees when it has the same identifier, the same parent and the same hash in both
+ * versions: such a group and all its descendants can not produce any difference, so the comparator
+ * only walks the groups on the path to a change.
+ * <p>
+ * The snapshots are not modified: the groups leading to a change are shallow copies sharing their
+ * components with the original groups.
+ */
+public final class ProcessGroupPruner {
+
+    private ProcessGroupPruner() {
+    }
+
+    /**
+     * @param groupA the root process group of the first version
+     * @param hashesA the process group hashes of the first version
+     * @param groupB the root process group of the second version
+     * @param hashesB the process group hashes of the second version
+     * @return the root process groups of both versions without their identical child groups
+     */
+    public static PrunedGroups prune(final VersionedProcessGroup groupA, final Map<String, String> hashesA,
+            final VersionedProcessGroup groupB, final Map<String, String> hashesB) {
+        final VersionedProcessGroup prunedA = copy(groupA);
+        final VersionedProcessGroup prunedB = copy(groupB);
+
+        final Map<String, VersionedProcessGroup> childrenB = new HashMap<>();
+        for (VersionedProcessGroup childB : groupB.getProcessGroups()) {
+            childrenB.put(childB.getIdentifier(), childB);
+        }
+
+        // identifiers of the groups existing in both versions
+        final Set<String> matched = new HashSet<>();
+        for (VersionedProcessGroup childA : groupA.getProcessGroups()) {
+            final VersionedProcessGroup childB = childrenB.get(childA.getIdentifier());
+            if (childB == null) {
+                // removed group, it is reported as a whole
+                prunedA.getProcessGroups().add(childA);
+            } else if (isUnchanged(childA.getIdentifier(), hashesA, hashesB)) {
+                matched.add(childA.getIdentifier());
+            } else {
+                final PrunedGroups prunedChildren = prune(childA, hashesA, childB, hashesB);
+                prunedA.getProcessGroups().add(prunedChildren.groupA());
+                prunedB.getProcessGroups().add(prunedChildren.groupB());
+                matched.add(childA.getIdentifier());
+            }
+        }
+
+        for (VersionedProcessGroup childB : groupB.getProcessGroups()) {
+            if (!matched.contains(childB.getIdentifier())) {
+                // added group, it is reported as a whole
+                prunedB.getProcessGroups().add(childB);
+            }
+        }
+
+        return new PrunedGroups(prunedA, prunedB);
+    }
+
+    private static boolean isUnchanged(final String identifier, final Map<String, String> hashesA, final Map<String, String> hashesB) {
+        final String hashA = hashesA.get(identifier);
+        return hashA != null && Objects.equals(hashA, hashesB.get(identifier));
+    }
+
+    /**
+     * @return a shallow copy of the process group, sharing its components but without its child groups
+     */
+    public static VersionedProcessGroup copy(final VersionedProcessGroup group) {
+        final VersionedProcessGroup copy = new VersionedProcessGroup();
+        copy.setIdentifier(group.getIdentifier());
+        copy.setInstanceIdentifier(group.getInstanceIdentifier());
+        copy.setGroupIdentifier(group.getGroupIdentifier());
+        copy.setName(group.getName());
+        copy.setComments(group.getComments());
+        copy.setPosition(group.getPosition());
+        copy.setComponentType(group.getComponentType());
+        copy.setVersionedFlowCoordinates(group.getVersionedFlowCoordinates());
+        copy.setParameterContextName(group.getParameterContextName());
+        copy.setFlowFileConcurrency(group.getFlowFileConcurrency());
+        copy.setFlowFileOutboundPolicy(group.getFlowFileOutboundPolicy());
+        copy.setDefaultFlowFileExpiration(group.getDefaultFlowFileExpiration());
+        copy.setDefaultBackPressureObjectThreshold(group.getDefaultBackPressureObjectThreshold());
+        copy.setDefaultBackPressureDataSizeThreshold(group.getDefaultBackPressureDataSizeThreshold());
+        copy.setLogFileSuffix(group.getLogFileSuffix());
+        copy.setScheduledState(group.getScheduledState());
+        copy.setExecutionEngine(group.getExecutionEngine());
+        copy.setMaxConcurrentTasks(group.getMaxConcurrentTasks());
+        copy.setStatelessFlowTimeout(group.getStatelessFlowTimeout());
+        copy.setRemoteProcessGroups(group.getRemoteProcessGroups());
+        copy.setProcessors(group.getProcessors());
+        copy.setInputPorts(group.getInputPorts());
+        copy.setOutputPorts(group.getOutputPorts());
+        copy.setConnections(group.getConnections());
+        copy.setLabels(group.getLabels());
+        copy.setFunnels(group.getFunnels());
+        copy.setControllerServices(group.getControllerServices());
+        copy.setProcessGroups(new HashSet<>());
+        return copy;
+    }
+
+    static VersionedProcessGroup emptyCopy(final VersionedProcessGroup group) {
+        final VersionedProcessGroup copy = copy(group);
+        copy.setProcessors(new HashSet<>());
+        copy.setControllerServices(new HashSet<>());
+        copy.setInputPorts(new HashSet<>());
+        copy.setOutputPorts(new HashSet<>());
+        copy.setConnections(new HashSet<>());
+        copy.setLabels(new HashSet<>());
+        copy.setFunnels(new HashSet<>());
+        copy.setRemoteProcessGroups(new HashSet<>());
+        return copy;
+    }
+
+    /**
+     * @param groupA the pruned root process group of the first version
+     * @param groupB the pruned root process group of the second version
+     */
+    public record PrunedGroups(VersionedProcessGroup groupA, VersionedProcessGroup groupB) {
+    }
+}
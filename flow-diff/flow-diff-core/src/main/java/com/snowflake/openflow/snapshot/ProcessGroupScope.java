@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Restricts a flow to the process groups matching include and exclude patterns. Patterns are
+ * paths of process group names from the root group, separated by slashes, in which {@code *}
+ * matches any part of a name and {@code **} any number of nested groups.
+ * <p>
+ * An included group is kept with all its descendants, except the excluded ones. The ancestors of
+ * an included group are kept without their own components so that the included group keeps its
+ * position in the tree. Without include patterns, the whole flow is included. Only the parameter
+ * contexts used by the process groups in scope are kept.
+ */
+public final class ProcessGroupScope {
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    private ProcessGroupScope(final List<Pattern> includes, final List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * @param include the patterns of the included process groups, may be null
+     * @param exclude the patterns of the excluded process groups, may be null
+     * @return the scope
+     */
+    public static ProcessGroupScope of(final List<String> include, final List<String> exclude) {
+        return new ProcessGroupScope(toPatterns(include), toPatterns(exclude));
+    }
+
+    /**
+     * @param root the root process group of the flow
+     * @return the root process group restricted to the scope, the given group itself if the whole flow is in scope
+     */
+    public VersionedProcessGroup apply(final VersionedProcessGroup root) {
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return root;
+        }
+        return scope(root, "", includes.isEmpty());
+    }
+
+    /**
+     * @param scopedRoot the root process group restricted to the scope, see {@link #apply(VersionedProcessGroup)}
+     * @param parameterContexts the parameter contexts of the flow, by name
+     * @return the parameter contexts used by the process groups in scope, directly or by inheritance
+     */
+    public Map<String, VersionedParameterContext> apply(final VersionedProcessGroup scopedRoot, final Map<String, VersionedParameterContext> parameterContexts) {
+        if ((includes.isEmpty() && excludes.isEmpty()) || parameterContexts == null) {
+            return parameterContexts;
+        }
+
+        final Deque<String> pending = new ArrayDeque<>();
+        collectParameterContextNames(scopedRoot, pending);
+        final Map<String, VersionedParameterContext> scoped = new HashMap<>();
+        while (!pending.isEmpty()) {
+            final String name = pending.pop();
+            final VersionedParameterContext parameterContext = parameterContexts.get(name);
+            if (parameterContext != null && scoped.putIfAbsent(name, parameterContext) == null && parameterContext.getInheritedParameterContexts() != null) {
+                pending.addAll(parameterContext.getInheritedParameterContexts());
+            }
+        }
+        return scoped;
+    }
+
+    private static void collectParameterContextNames(final VersionedProcessGroup group, final Deque<String> names) {
+        if (group.getParameterContextName() != null) {
+            names.add(group.getParameterContextName());
+        }
+        for (VersionedProcessGroup child : group.getProcessGroups()) {
+            collectParameterContextNames(child, names);
+        }
+    }
+
+    private VersionedProcessGroup scope(final VersionedProcessGroup group, final String path, final boolean included) {
+        if (included && excludes.isEmpty()) {
+            return group;
+        }
+
+        // an ancestor of included groups is only kept as a container
+        final VersionedProcessGroup scoped = included ? ProcessGroupPruner.copy(group) : ProcessGroupPruner.emptyCopy(group);
+
+        for (VersionedProcessGroup child : group.getProcessGroups()) {
+            final String childPath = path.isEmpty() ? child.getName() : path + "/" + child.getName();
+            if (matches(excludes, childPath)) {
+                continue;
+            }
+            final boolean childIncluded = included || matches(includes, childPath);
+            final VersionedProcessGroup scopedChild = scope(child, childPath, childIncluded);
+            if (childIncluded || !scopedChild.getProcessGroups().isEmpty()) {
+                scoped.getProcessGroups().add(scopedChild);
+            }
+        }
+        return scoped;
+    }
+
+    private static boolean matches(final List<Pattern> patterns, final String path) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> toPatterns(final List<String> globs) {
+        return globs == null ? List.of() : globs.stream().map(ProcessGroupScope::toPattern).toList();
+    }
+
+    static Pattern toPattern(final String pattern) {
+        // paths are relative to the root group, a leading slash is accepted
+        final String glob = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        final StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            if (glob.charAt(i) != '*') {
+                continue;
+            }
+            if (i > literalStart) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * On-disk store of the rendered report of each pair of flows, so that a pair compared by a
+ * previous run with the same files and the same configuration is not compared again. Entries are
+ * keyed by the content hashes of both flow files and of the checkstyle configuration, and live in a
+ * sub-directory named after {@link VersionInfo#fingerprint()} like the {@link SnapshotCache}.
+ */
+public class ResultStore {
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String ABSENT = "absent";
+
+    // map entries are sorted so that the same configuration always gives the same key
+    private static final ObjectWriter CONFIG_WRITER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .writerFor(CheckstyleRulesConfig.class);
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final ObjectReader resultReader;
+    private final ObjectWriter resultWriter;
+
+    public ResultStore(final Path cacheDirectory, final long maxSizeBytes) throws IOException {
+        this.directory = CacheDirectories.versionDirectory(cacheDirectory, "results", ENTRY_EXTENSION);
+        this.maxSizeBytes = maxSizeBytes;
+
+        final ObjectMapper mapper = new ObjectMapper();
+        this.resultReader = mapper.readerFor(StoredResult.class);
+        this.resultWriter = mapper.writerFor(StoredResult.class);
+    }
+
+    /**
+     * @param hashA the content hash of the original version of the flow, null if it does not exist,
+     *              see {@link SnapshotLoader#contentHash(String)}
+     * @param hashB the content hash of the new version of the flow
+     * @param checkstyleEnabled whether checkstyle is executed
+     * @param rulesConfig the checkstyle configuration, null for the default rules
+     * @param reportOptions the options changing the contents of the report
+     * @return the key of the result of the comparison of both files
+     */
+    public static String key(final String hashA, final String hashB, final boolean checkstyleEnabled,
+            final CheckstyleRulesConfig rulesConfig, final String reportOptions) throws IOException {
+        // the process group scopes of the configuration apply to the comparison even without checkstyle
+        final String config = (checkstyleEnabled ? CONFIG_WRITER.writeValueAsString(rulesConfig) : "disabled") + ":"
+                + CONFIG_WRITER.writeValueAsString(rulesConfig == null ? null : new CheckstyleRulesConfig(null, null, null, rulesConfig.scopes()));
+        final String key = Objects.requireNonNullElse(hashA, ABSENT) + ":" + hashB + ":"
+                + SnapshotCache.sha256(ByteBuffer.wrap(config.getBytes(StandardCharsets.UTF_8))) + ":" + reportOptions;
+        return SnapshotCache.sha256(ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param key the key of the entry, see {@link #key(String, String, boolean, CheckstyleRulesConfig, String)}
+     * @return the stored result or null if there is no usable entry for this key
+     */
+    public StoredResult get(final String key) {
+        final Path entry = directory.resolve(key + ENTRY_EXTENSION);
+        try {
+            final StoredResult result = resultReader.readValue(Files.readAllBytes(entry));
+            CacheDirectories.touch(entry);
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // corrupted or partially written entry, it will be replaced
+            return null;
+        }
+    }
+
+    /**
+     * Stores a result. Failures are not fatal as the store is only an optimization.
+     *
+     * @param key the key of the entry, see {@link #key(String, String, boolean, CheckstyleRulesConfig, String)}
+     * @param result the result of the comparison
+     */
+    public void put(final String key, final StoredResult result) {
+        try {
+            CacheDirectories.write(directory, key, ENTRY_EXTENSION, out -> resultWriter.writeValue(out, result));
+            evict();
+        } catch (IOException e) {
+            System.err.println("Failed to write result store entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        CacheDirectories.evict(directory, ENTRY_EXTENSION, maxSizeBytes);
+    }
+
+    /**
+     * @param output the rendered report of the flow
+     * @param checkstyleViolationsFound whether blocking checkstyle violations were found in the flow
+     * @param sharedChanges the changes of versioned child groups listed once for all the flows of the run, may be null
+     */
+    public record StoredResult(String output, boolean checkstyleViolationsFound, List<StoredSharedChange> sharedChanges) {
+
+        public StoredResult(final String output, final boolean checkstyleViolationsFound) {
+            this(output, checkstyleViolationsFound, List.of());
+        }
+    }
+
+    /**
+     * @param key the key of the change
+     * @param title the title of the change in the comment
+     * @param report the rendered report of the change
+     */
+    public record StoredSharedChange(String key, String title, String report) {
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Content-addressed on-disk cache of parsed snapshots. Entries are keyed by the SHA-256 of the
+ * snapshot file and stored in the binary Smile encoding, which is much cheaper to decode than
+ * the original JSON text. Entries live in a sub-directory named after {@link VersionInfo#fingerprint()}
+ * so that a new version of the tool or of the NiFi model never reads entries written by another one.
+ * The least recently used entries are evicted once the cache grows above its maximum size.
+ * <p>
+ * A long-running process may also keep the most recently used entries in memory, still encoded so
+ * that each load gets its own copy of the snapshot, which the comparison modifies in place.
+ */
+public class SnapshotCache {
+
+    private static final String ENTRY_EXTENSION = ".smile";
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final long memoryMaxSizeBytes;
+    // access order, the eldest entry is the least recently used one
+    private final LinkedHashMap<String, byte[]> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySizeBytes;
+    private final ObjectReader snapshotReader;
+    private final ObjectWriter snapshotWriter;
+
+    public SnapshotCache(final Path cacheDirectory, final long maxSizeBytes) throws IOException {
+        this(cacheDirectory, maxSizeBytes, 0);
+    }
+
+    /**
+     * @param cacheDirectory the directory of the cache, null to only keep the entries in memory
+     * @param maxSizeBytes the maximum size of the entries on disk
+     * @param memoryMaxSizeBytes the maximum size of the entries kept in memory, 0 to not keep any
+     */
+    public SnapshotCache(final Path cacheDirectory, final long maxSizeBytes, final long memoryMaxSizeBytes) throws IOException {
+        this.directory = cacheDirectory == null ? null : CacheDirectories.versionDirectory(cacheDirectory, "snapshots", ENTRY_EXTENSION);
+        this.maxSizeBytes = maxSizeBytes;
+        this.memoryMaxSizeBytes = memoryMaxSizeBytes;
+
+        final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        smileMapper.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
+        smileMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.snapshotReader = smileMapper.readerFor(RegisteredFlowSnapshot.class);
+        this.snapshotWriter = smileMapper.writerFor(RegisteredFlowSnapshot.class);
+    }
+
+    /**
+     * @param content the content of a snapshot file
+     * @return the hexadecimal SHA-256 of the content
+     */
+    public static String sha256(final ByteBuffer content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.duplicate());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param key the key of the entry, see {@link #sha256(ByteBuffer)}
+     * @return the cached snapshot or null if there is no usable entry for this key
+     */
+    public RegisteredFlowSnapshot get(final String key) {
+        final byte[] memoryEntry = getFromMemory(key);
+        if (memoryEntry != null) {
+            try {
+                return snapshotReader.readValue(memoryEntry);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        if (directory == null) {
+            return null;
+        }
+
+        final Path entry = directory.resolve(key + ENTRY_EXTENSION);
+        try {
+            final byte[] content = Files.readAllBytes(entry);
+            final RegisteredFlowSnapshot snapshot = snapshotReader.readValue(content);
+            // the modification time is used as the last access time for the LRU eviction
+            CacheDirectories.touch(entry);
+            putInMemory(key, content);
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // corrupted or partially written entry, it will be replaced
+            return null;
+        }
+    }
+
+    /**
+     * Stores a snapshot in the cache. Failures are not fatal as the cache is only an optimization.
+     *
+     * @param key the key of the entry, see {@link #sha256(ByteBuffer)}
+     * @param snapshot the parsed snapshot
+     */
+    public void put(final String key, final RegisteredFlowSnapshot snapshot) {
+        try {
+            final byte[] content = memoryMaxSizeBytes > 0 ? snapshotWriter.writeValueAsBytes(snapshot) : null;
+            if (content != null) {
+                putInMemory(key, content);
+            }
+            if (directory != null) {
+                CacheDirectories.write(directory, key, ENTRY_EXTENSION, out -> {
+                    if (content != null) {
+                        out.write(content);
+                    } else {
+                        snapshotWriter.writeValue(out, snapshot);
+                    }
+                });
+                evict();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write snapshot cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized byte[] getFromMemory(final String key) {
+        return memoryEntries.get(key);
+    }
+
+    private synchronized void putInMemory(final String key, final byte[] content) {
+        if (content.length > memoryMaxSizeBytes) {
+            return;
+        }
+        final byte[] previous = memoryEntries.put(key, content);
+        memorySizeBytes += content.length - (previous == null ? 0 : previous.length);
+
+        final Iterator<byte[]> eldest = memoryEntries.values().iterator();
+        while (memorySizeBytes > memoryMaxSizeBytes) {
+            memorySizeBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        CacheDirectories.evict(directory, ENTRY_EXTENSION, maxSizeBytes);
+    }
+}
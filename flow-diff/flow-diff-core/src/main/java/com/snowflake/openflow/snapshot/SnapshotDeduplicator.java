@@ -0,0 +1,155 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import org.apache.nifi.flow.Bundle;
+import org.apache.nifi.flow.VersionedConfigurableExtension;
+import org.apache.nifi.flow.VersionedParameter;
+import org.apache.nifi.flow.VersionedParameterContext;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.flow.VersionedPropertyDescriptor;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes the two snapshots of a comparison share their identical values instead of holding two
+ * copies of them: strings are interned in a pool, and equal bundles, property maps and property
+ * descriptor maps are replaced by a single instance. Shared maps are unmodifiable.
+ * <p>
+ * One instance is used for both sides of a comparison, possibly parsed concurrently, and then
+ * dropped so that the pools do not retain the values of flows that are no longer compared.
+ */
+final class SnapshotDeduplicator {
+
+    // attribute of the deserialization context holding the deduplicator of the snapshot being parsed
+    static final String ATTRIBUTE = SnapshotDeduplicator.class.getName();
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<Bundle, Bundle> bundles = new ConcurrentHashMap<>();
+    private final Map<Map<String, String>, Map<String, String>> propertyMaps = new ConcurrentHashMap<>();
+    private final Map<DescriptorKey, VersionedPropertyDescriptor> descriptors = new ConcurrentHashMap<>();
+    private final Map<Map<String, VersionedPropertyDescriptor>, Map<String, VersionedPropertyDescriptor>> descriptorMaps = new ConcurrentHashMap<>();
+
+    String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final String existing = strings.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * Replaces the values of the given snapshot by the instances already seen by this deduplicator.
+     * Strings read by {@link InterningStringDeserializer} are already interned, this also covers the
+     * snapshots read from the {@link SnapshotCache}.
+     *
+     * @param snapshot the snapshot to deduplicate
+     */
+    void deduplicate(final RegisteredFlowSnapshot snapshot) {
+        if (snapshot.getFlowContents() != null) {
+            deduplicate(snapshot.getFlowContents());
+        }
+        if (snapshot.getParameterContexts() != null) {
+            for (VersionedParameterContext parameterContext : snapshot.getParameterContexts().values()) {
+                for (VersionedParameter parameter : nullToEmpty(parameterContext.getParameters())) {
+                    parameter.setValue(intern(parameter.getValue()));
+                    parameter.setDescription(intern(parameter.getDescription()));
+                }
+            }
+        }
+    }
+
+    private void deduplicate(final VersionedProcessGroup group) {
+        nullToEmpty(group.getProcessors()).forEach(this::deduplicate);
+        nullToEmpty(group.getControllerServices()).forEach(this::deduplicate);
+        nullToEmpty(group.getProcessGroups()).forEach(this::deduplicate);
+    }
+
+    private void deduplicate(final VersionedConfigurableExtension extension) {
+        extension.setType(intern(extension.getType()));
+        if (extension.getBundle() != null) {
+            extension.setBundle(bundles.computeIfAbsent(extension.getBundle(), this::internBundle));
+        }
+        if (extension.getProperties() != null) {
+            extension.setProperties(shareProperties(extension.getProperties()));
+        }
+        if (extension.getPropertyDescriptors() != null) {
+            extension.setPropertyDescriptors(shareDescriptors(extension.getPropertyDescriptors()));
+        }
+    }
+
+    private Bundle internBundle(final Bundle bundle) {
+        bundle.setGroup(intern(bundle.getGroup()));
+        bundle.setArtifact(intern(bundle.getArtifact()));
+        bundle.setVersion(intern(bundle.getVersion()));
+        return bundle;
+    }
+
+    private Map<String, String> shareProperties(final Map<String, String> properties) {
+        final Map<String, String> shared = new LinkedHashMap<>();
+        properties.forEach((name, value) -> shared.put(intern(name), intern(value)));
+        return propertyMaps.computeIfAbsent(Collections.unmodifiableMap(shared), map -> map);
+    }
+
+    private Map<String, VersionedPropertyDescriptor> shareDescriptors(final Map<String, VersionedPropertyDescriptor> propertyDescriptors) {
+        final Map<String, VersionedPropertyDescriptor> shared = new LinkedHashMap<>();
+        propertyDescriptors.forEach((name, descriptor) -> shared.put(intern(name), shareDescriptor(descriptor)));
+        return descriptorMaps.computeIfAbsent(Collections.unmodifiableMap(shared), map -> map);
+    }
+
+    private VersionedPropertyDescriptor shareDescriptor(final VersionedPropertyDescriptor descriptor) {
+        // descriptors do not implement equals, only the plain ones without definitions are shared
+        if (descriptor == null || descriptor.getResourceDefinition() != null || descriptor.getListenPortDefinition() != null) {
+            return descriptor;
+        }
+        final DescriptorKey key = new DescriptorKey(intern(descriptor.getName()), intern(descriptor.getDisplayName()),
+                descriptor.getIdentifiesControllerService(), descriptor.isSensitive(), descriptor.isDynamic());
+        return descriptors.computeIfAbsent(key, k -> {
+            descriptor.setName(k.name());
+            descriptor.setDisplayName(k.displayName());
+            return descriptor;
+        });
+    }
+
+    private static <T> Collection<T> nullToEmpty(final Collection<T> collection) {
+        return collection == null ? Collections.emptySet() : collection;
+    }
+
+    private record DescriptorKey(String name, String displayName, boolean identifiesControllerService, boolean sensitive, boolean dynamic) {
+    }
+
+    /**
+     * Interns the strings parsed while a deduplicator is set as {@link #ATTRIBUTE} of the reader.
+     */
+    static class InterningStringDeserializer extends StringDeserializer {
+
+        @Override
+        public String deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            final String value = super.deserialize(parser, context);
+            return context.getAttribute(ATTRIBUTE) instanceof SnapshotDeduplicator deduplicator ? deduplicator.intern(value) : value;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes a canonical hash of the part of a snapshot that is compared by the flow diff: the flow
+ * contents and the parameter contexts. Object keys are sorted, the layout-only fields of the
+ * components are ignored and the elements of the collections that are sets in the NiFi model are
+ * sorted, so two snapshots with the same hash have no relevant difference. The opposite is not
+ * guaranteed: snapshots with different hashes may still have no relevant difference.
+ * <p>
+ * Process groups are hashed bottom-up: the hash of a group covers its own configuration and
+ * components and the hashes of its child groups, giving a Merkle tree of the flow.
+ * <p>
+ * The model is hashed while it is serialized, without building a tree of it.
+ */
+public final class SnapshotHasher {
+
+    // fields of the NiFi model holding sets of components, the order of their elements is meaningless
+    private static final Set<String> SET_FIELDS = Set.of("processGroups", "remoteProcessGroups", "processors", "inputPorts",
+            "outputPorts", "connections", "labels", "funnels", "controllerServices", "parameters");
+
+    private static final byte OBJECT = 'O';
+    private static final byte ARRAY = 'A';
+    private static final byte SET = 'S';
+    private static final byte TEXT = 'T';
+    private static final byte NUMBER = 'N';
+    private static final byte BOOLEAN = 'B';
+    private static final byte BINARY = 'Y';
+    private static final byte NULL = 'Z';
+
+    // the properties and the map entries are written in a canonical order
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private SnapshotHasher() {
+    }
+
+    /**
+     * @param snapshot the snapshot to hash
+     * @return the hexadecimal SHA-256 of the canonical form of the flow contents and parameter contexts
+     */
+    public static String semanticHash(final RegisteredFlowSnapshot snapshot) {
+        return hash(snapshot).flowHash();
+    }
+
+    /**
+     * @param snapshot the snapshot to hash
+     * @return the hash of the snapshot and the hash of each of its process groups
+     */
+    public static FlowHashes hash(final RegisteredFlowSnapshot snapshot) {
+        final Map<String, String> processGroupHashes = new HashMap<>();
+        final MessageDigest digest = newDigest();
+        digest.update(OBJECT);
+
+        // the root process group is hashed on its own so that its hash can be recorded as well
+        updateText(digest, "flowContents");
+        digest.update(valueHash(snapshot.getFlowContents(), Level.COMPONENT, true, processGroupHashes));
+
+        // identifiers of parameter contexts are not reliable, the flow diff identifies them by name
+        updateText(digest, "parameterContexts");
+        digest.update(valueHash(snapshot.getParameterContexts(), Level.PARAMETER_CONTEXTS, false, processGroupHashes));
+
+        digest.update(OBJECT);
+        return new FlowHashes(HexFormat.of().formatHex(digest.digest()), processGroupHashes);
+    }
+
+    private static byte[] valueHash(final Object value, final Level level, final boolean processGroup, final Map<String, String> processGroupHashes) {
+        final HashingGenerator generator = new HashingGenerator(level, processGroup, processGroupHashes);
+        try {
+            OBJECT_MAPPER.writeValue(generator, value);
+        } catch (IOException e) {
+            // nothing is written anywhere
+            throw new UncheckedIOException(e);
+        }
+        return generator.hash();
+    }
+
+    private static void updateText(final MessageDigest digest, final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update(intBytes(bytes.length));
+        digest.update(bytes);
+    }
+
+    private static byte[] intBytes(final int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param flowHash the hash of the whole snapshot
+     * @param processGroupHashes the hash of each process group of the snapshot, by identifier
+     */
+    public record FlowHashes(String flowHash, Map<String, String> processGroupHashes) {
+    }
+
+    /**
+     * Where a value is in the document, deciding which of its fields are ignored.
+     */
+    private enum Level {
+        COMPONENT,
+        LABEL,
+        PARAMETER_CONTEXTS,
+        PARAMETER_CONTEXT,
+        VALUE
+    }
+
+    /**
+     * An object or an array being written.
+     */
+    private static final class Frame {
+        private final Level level;
+        private final boolean array;
+        // hashes of the elements of a set, sorted once the set is complete
+        private final List<byte[]> elements;
+        private final boolean processGroups;
+        private final String key;
+        private int count;
+        private String field;
+        private Level valueLevel = Level.VALUE;
+        private boolean skipValue;
+        private String replacement;
+
+        private Frame(final Level level, final boolean array, final List<byte[]> elements, final boolean processGroups, final String key) {
+            this.level = level;
+            this.array = array;
+            this.elements = elements;
+            this.processGroups = processGroups;
+            this.key = key;
+        }
+    }
+
+    /**
+     * A value hashed on its own: the whole value, or an element of a set.
+     */
+    private static final class Scope {
+        private final MessageDigest digest = newDigest();
+        private final boolean processGroup;
+        private final int depth;
+        private String identifier;
+
+        private Scope(final boolean processGroup, final int depth) {
+            this.processGroup = processGroup;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Generator hashing the tokens written to it in the canonical form described above.
+     */
+    private static final class HashingGenerator extends GeneratorBase {
+
+        private final Level rootLevel;
+        private final Map<String, String> processGroupHashes;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Deque<Scope> scopes = new ArrayDeque<>();
+        private final Scope rootScope;
+        // depth within a skipped value, 0 when no value is skipped
+        private int skippedDepth;
+
+        private HashingGenerator(final Level rootLevel, final boolean processGroup, final Map<String, String> processGroupHashes) {
+            super(0, null);
+            this.rootLevel = rootLevel;
+            this.processGroupHashes = processGroupHashes;
+            this.rootScope = new Scope(processGroup, 0);
+            scopes.push(rootScope);
+        }
+
+        private byte[] hash() {
+            return record(rootScope);
+        }
+
+        private byte[] record(final Scope scope) {
+            final byte[] hash = scope.digest.digest();
+            if (scope.processGroup && scope.identifier != null) {
+                processGroupHashes.put(scope.identifier, HexFormat.of().formatHex(hash));
+            }
+            return hash;
+        }
+
+        private MessageDigest digest() {
+            return scopes.peek().digest;
+        }
+
+        // returns false if the value is skipped
+        private boolean beginValue() {
+            final Frame parent = frames.peek();
+            if (parent == null) {
+                return true;
+            }
+            if (parent.array) {
+                parent.count++;
+                if (parent.elements != null) {
+                    scopes.push(new Scope(parent.processGroups, frames.size()));
+                }
+                return true;
+            }
+            if (parent.skipValue) {
+                parent.skipValue = false;
+                return false;
+            }
+            return true;
+        }
+
+        private void endValue() {
+            final Frame parent = frames.peek();
+            if (parent != null && parent.array && parent.elements != null) {
+                parent.elements.add(record(scopes.pop()));
+            }
+        }
+
+        private void startContainer(final boolean array) {
+            if (skippedDepth > 0 || !beginValue()) {
+                skippedDepth++;
+                return;
+            }
+            final Frame parent = frames.peek();
+            final Level level = parent == null ? rootLevel : parent.array ? parent.level : parent.valueLevel;
+            final boolean set = array && parent != null && !parent.array && SET_FIELDS.contains(parent.field);
+            final boolean processGroups = set && parent.level == Level.COMPONENT && "processGroups".equals(parent.field);
+            final String key = parent != null && parent.level == Level.PARAMETER_CONTEXTS ? parent.field : null;
+            if (!set) {
+                digest().update(array ? ARRAY : OBJECT);
+            }
+            frames.push(new Frame(level, array, set ? new ArrayList<>() : null, processGroups, key));
+        }
+
+        private void writeScalar(final byte type, final String text) {
+            if (skippedDepth > 0 || !beginValue()) {
+                return;
+            }
+            String value = text;
+            final Frame frame = frames.peek();
+            if (frame != null && !frame.array) {
+                if (frame.replacement != null) {
+                    value = frame.replacement;
+                }
+                final Scope scope = scopes.peek();
+                if (scope.processGroup && scope.depth + 1 == frames.size() && "identifier".equals(frame.field)) {
+                    scope.identifier = value;
+                }
+            }
+            digest().update(type);
+            if (value != null) {
+                updateText(digest(), value);
+            }
+            endValue();
+        }
+
+        @Override
+        public void writeStartArray() {
+            startContainer(true);
+        }
+
+        @Override
+        public void writeEndArray() {
+            if (skippedDepth > 0) {
+                skippedDepth--;
+                return;
+            }
+            final Frame frame = frames.pop();
+            if (frame.elements != null) {
+                frame.elements.sort(Arrays::compare);
+                digest().update(SET);
+                digest().update(intBytes(frame.elements.size()));
+                frame.elements.forEach(digest()::update);
+            } else {
+                digest().update(ARRAY);
+                digest().update(intBytes(frame.count));
+            }
+            endValue();
+        }
+
+        @Override
+        public void writeStartObject() {
+            startContainer(false);
+        }
+
+        @Override
+        public void writeEndObject() {
+            if (skippedDepth > 0) {
+                skippedDepth--;
+                return;
+            }
+            frames.pop();
+            digest().update(OBJECT);
+            endValue();
+        }
+
+        @Override
+        public void writeFieldName(final String name) {
+            if (skippedDepth > 0) {
+                return;
+            }
+            final Frame frame = frames.peek();
+            frame.field = name;
+            frame.valueLevel = Level.VALUE;
+            frame.skipValue = false;
+            frame.replacement = null;
+            switch (frame.level) {
+                case COMPONENT, LABEL -> {
+                    if (LayoutFieldFilter.isLayoutField(name, frame.level == Level.LABEL)) {
+                        frame.skipValue = true;
+                        return;
+                    }
+                    if (LayoutFieldFilter.COMPONENT_FIELDS.contains(name)) {
+                        frame.valueLevel = "labels".equals(name) ? Level.LABEL : Level.COMPONENT;
+                    }
+                }
+                case PARAMETER_CONTEXTS -> frame.valueLevel = Level.PARAMETER_CONTEXT;
+                case PARAMETER_CONTEXT -> {
+                    if ("identifier".equals(name)) {
+                        frame.replacement = frame.key;
+                    }
+                }
+                default -> {
+                }
+            }
+            updateText(digest(), name);
+        }
+
+        @Override
+        public void writeFieldName(final SerializableString name) {
+            writeFieldName(name.getValue());
+        }
+
+        @Override
+        public void writeString(final String text) {
+            writeScalar(TEXT, text);
+        }
+
+        @Override
+        public void writeString(final char[] buffer, final int offset, final int length) {
+            writeScalar(TEXT, new String(buffer, offset, length));
+        }
+
+        @Override
+        public void writeRawUTF8String(final byte[] buffer, final int offset, final int length) {
+            writeScalar(TEXT, new String(buffer, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeUTF8String(final byte[] buffer, final int offset, final int length) {
+            writeScalar(TEXT, new String(buffer, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeRaw(final String text) {
+            throw new UnsupportedOperationException("Raw values are not hashed");
+        }
+
+        @Override
+        public void writeRaw(final String text, final int offset, final int length) {
+            throw new UnsupportedOperationException("Raw values are not hashed");
+        }
+
+        @Override
+        public void writeRaw(final char[] text, final int offset, final int length) {
+            throw new UnsupportedOperationException("Raw values are not hashed");
+        }
+
+        @Override
+        public void writeRaw(final char c) {
+            throw new UnsupportedOperationException("Raw values are not hashed");
+        }
+
+        @Override
+        public void writeBinary(final Base64Variant variant, final byte[] data, final int offset, final int length) {
+            writeScalar(BINARY, HexFormat.of().formatHex(data, offset, offset + length));
+        }
+
+        @Override
+        public void writeNumber(final int value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final long value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final BigInteger value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final double value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final float value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final BigDecimal value) {
+            writeScalar(NUMBER, String.valueOf(value));
+        }
+
+        @Override
+        public void writeNumber(final String encodedValue) {
+            writeScalar(NUMBER, encodedValue);
+        }
+
+        @Override
+        public void writeBoolean(final boolean state) {
+            writeScalar(BOOLEAN, state ? "1" : "0");
+        }
+
+        @Override
+        public void writeNull() {
+            writeScalar(NULL, null);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        protected void _releaseBuffers() {
+        }
+
+        @Override
+        protected void _verifyValueWrite(final String typeMsg) {
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter.Inclusion;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.snowflake.openflow.snapshot.SnapshotDeduplicator.InterningStringDeserializer;
+import org.apache.nifi.controller.flow.VersionedDataflow;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads flow snapshots from disk, or from the object database of a git repository with a
+ * {@link GitObjectReader}. The loader holds a single pre-configured {@link ObjectReader}
+ * which is immutable and therefore safe to share between threads and between flows.
+ */
+public class SnapshotLoader implements Closeable {
+
+    // files bigger than this are memory-mapped instead of being copied on the heap before parsing
+    private static final long MAPPED_FILE_THRESHOLD = 16L * 1024 * 1024;
+
+    private static final ExecutorService LOADER_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> DATAFLOW_FIELDS = Set.of("encodingVersion", "maxTimerDrivenThreadCount", "registries", "rootGroup");
+    private static final Set<String> SNAPSHOT_FIELDS = Set.of("flow", "flowContents", "snapshotMetadata", "bucket");
+
+    private final ObjectReader snapshotReader;
+    private final boolean semantic;
+    private final boolean deduplicate;
+    private final SnapshotCache snapshotCache;
+    // stages of the comparisons of the flows of this loader abandoned once their deadline was reached, see Deadline
+    private final AtomicInteger abandonedStages = new AtomicInteger();
+    private GitObjectReader gitObjectReader;
+
+    public SnapshotLoader() {
+        this(false);
+    }
+
+    /**
+     * @param semantic true to skip the layout-only fields (see {@link LayoutFieldFilter}) while parsing
+     */
+    public SnapshotLoader(final boolean semantic) {
+        this(semantic, null);
+    }
+
+    /**
+     * @param semantic true to skip the layout-only fields (see {@link LayoutFieldFilter}) while parsing
+     * @param snapshotCache optional cache of parsed snapshots, may be null
+     */
+    public SnapshotLoader(final boolean semantic, final SnapshotCache snapshotCache) {
+        this(semantic, false, snapshotCache);
+    }
+
+    /**
+     * @param semantic true to skip the layout-only fields (see {@link LayoutFieldFilter}) while parsing
+     * @param deduplicate true to share the identical values of both snapshots of a pair (see {@link SnapshotDeduplicator})
+     * @param snapshotCache optional cache of parsed snapshots, may be null
+     */
+    public SnapshotLoader(final boolean semantic, final boolean deduplicate, final SnapshotCache snapshotCache) {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        if (deduplicate) {
+            objectMapper.registerModule(new SimpleModule().addDeserializer(String.class, new InterningStringDeserializer()));
+        }
+        this.snapshotReader = objectMapper.readerFor(RegisteredFlowSnapshot.class);
+        this.semantic = semantic;
+        this.deduplicate = deduplicate;
+        this.snapshotCache = snapshotCache;
+    }
+
+    public boolean isSemantic() {
+        return semantic;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+
+    /**
+     * @return the counter of the comparison stages abandoned once their deadline was reached whose
+     *         thread is still running, for the comparisons sharing this loader
+     */
+    public AtomicInteger getAbandonedStages() {
+        return abandonedStages;
+    }
+
+    /**
+     * @param gitObjectReader the reader of the {@code <rev>:<path>} locations, null to only read files
+     */
+    public void setGitObjectReader(final GitObjectReader gitObjectReader) {
+        this.gitObjectReader = gitObjectReader;
+    }
+
+    /**
+     * @param location the path of a flow definition, or a {@code <rev>:<path>} spec if a {@link GitObjectReader} is set, null for no flow
+     * @return a hash of the content of the flow definition, null if it does not exist
+     */
+    public String contentHash(final String location) throws IOException {
+        if (location == null) {
+            return null;
+        }
+        if (isGitLocation(location)) {
+            final String objectId = gitObjectReader.objectId(location);
+            return objectId == null ? null : "git:" + objectId;
+        }
+        final Path path = Path.of(location);
+        return Files.exists(path) ? SnapshotCache.sha256(ByteBuffer.wrap(Files.readAllBytes(path))) : null;
+    }
+
+    /**
+     * @param location the path of a flow definition, or a {@code <rev>:<path>} spec if a {@link GitObjectReader} is set, null for no flow
+     * @return the size in bytes of the flow definition as stored, 0 if it does not exist
+     */
+    public long contentSize(final String location) throws IOException {
+        if (location == null) {
+            return 0;
+        }
+        if (isGitLocation(location)) {
+            return Math.max(0, gitObjectReader.size(location));
+        }
+        final Path path = Path.of(location);
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    private boolean isGitLocation(final String location) {
+        return gitObjectReader != null && GitObjectReader.isRevisionSpec(location);
+    }
+
+    /**
+     * Stops the git processes of the {@link GitObjectReader}, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (gitObjectReader != null) {
+            gitObjectReader.close();
+        }
+    }
+
+    /**
+     * Loads the snapshot stored in the given file.
+     *
+     * @param path the path of the flow definition
+     * @return the container of the parsed snapshot
+     * @throws IOException if the file cannot be read or is not a valid flow definition
+     */
+    public FlowSnapshotContainer load(final Path path) throws IOException {
+        return load(path.toString(), null);
+    }
+
+    private FlowSnapshotContainer load(final String location, final SnapshotDeduplicator deduplicator) throws IOException {
+        final ByteBuffer content = readContent(location);
+        final ObjectReader reader = deduplicator == null ? snapshotReader : snapshotReader.withAttribute(SnapshotDeduplicator.ATTRIBUTE, deduplicator);
+
+        if (snapshotCache == null) {
+            return toContainer(parse(content, reader), deduplicator);
+        }
+
+        // the same file gives a different snapshot depending on whether layout fields are skipped
+        final String key = SnapshotCache.sha256(content) + (semantic ? "-semantic" : "-full");
+        final RegisteredFlowSnapshot cached = snapshotCache.get(key);
+        if (cached != null) {
+            return toContainer(cached, deduplicator);
+        }
+
+        final RegisteredFlowSnapshot snapshot = parse(content, reader);
+        // stored before the deduplication which makes some of its maps unmodifiable
+        snapshotCache.put(key, snapshot);
+        return toContainer(snapshot, deduplicator);
+    }
+
+    private ByteBuffer readContent(final String location) throws IOException {
+        if (isGitLocation(location)) {
+            return gitObjectReader.read(location);
+        }
+
+        final Path path = Path.of(location);
+        final long size = Files.size(path);
+
+        if (size < MAPPED_FILE_THRESHOLD) {
+            return ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+
+        // the mapping stays valid once the channel is closed
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private RegisteredFlowSnapshot parse(final ByteBuffer content, final ObjectReader reader) throws IOException {
+        if (isDataflow(content)) {
+            try (final JsonParser parser = createParser(content, reader)) {
+                final VersionedDataflow dataflow = read(parser, reader.forType(VersionedDataflow.class));
+                return DataflowAdapter.toSnapshot(dataflow);
+            }
+        }
+
+        try (final JsonParser parser = createParser(content, reader)) {
+            return read(parser, reader);
+        }
+    }
+
+    private static JsonParser createParser(final ByteBuffer content, final ObjectReader reader) throws IOException {
+        if (isGzip(content)) {
+            // decompressed while parsing, the inflated content is never held in memory as a whole
+            return reader.createParser(decompress(content));
+        }
+        if (isZstd(content)) {
+            throw new IOException("Zstandard-compressed flows are not supported, decompress them or use gzip");
+        }
+        if (content.hasArray()) {
+            return reader.createParser(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        }
+        return reader.createParser(new ByteBufferBackedInputStream(content.duplicate()));
+    }
+
+    /**
+     * @param content the content of a flow file
+     * @return true if the content is gzip-compressed
+     */
+    static boolean isGzip(final ByteBuffer content) {
+        return content.remaining() >= 2 && content.get(content.position()) == (byte) 0x1f && content.get(content.position() + 1) == (byte) 0x8b;
+    }
+
+    private static boolean isZstd(final ByteBuffer content) {
+        return content.remaining() >= 4 && content.getInt(content.position()) == 0x28b52ffd;
+    }
+
+    /**
+     * @param content gzip-compressed content
+     * @return the stream of the decompressed content
+     */
+    static InputStream decompress(final ByteBuffer content) throws IOException {
+        return new GZIPInputStream(new ByteBufferBackedInputStream(content.duplicate()), GZIP_BUFFER_SIZE);
+    }
+
+    // the dataflow of a NiFi instance is recognized by its top-level fields, which usually come first
+    private boolean isDataflow(final ByteBuffer content) throws IOException {
+        try (final JsonParser parser = createParser(content, snapshotReader)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                if (DATAFLOW_FIELDS.contains(field)) {
+                    return true;
+                }
+                if (SNAPSHOT_FIELDS.contains(field)) {
+                    return false;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+
+    private <T> T read(final JsonParser parser, final ObjectReader reader) throws IOException {
+        if (!semantic) {
+            return reader.readValue(parser);
+        }
+        try (final JsonParser filteringParser = new FilteringParserDelegate(parser, LayoutFieldFilter.INSTANCE, Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+            return reader.readValue(filteringParser);
+        }
+    }
+
+    /**
+     * Loads both sides of a comparison concurrently. The original flow (side A) is optional: when
+     * it cannot be loaded, for example because this is the first version of the flow, the
+     * returned pair has no snapshot A.
+     *
+     * @param pathA the path of the original flow definition, null if the flow is new
+     * @param pathB the path of the new flow definition
+     * @return the loaded pair of snapshots
+     * @throws IOException if the new flow definition cannot be loaded
+     */
+    public SnapshotPair loadPair(final String pathA, final String pathB) throws IOException {
+        // the pool of shared values only lives as long as the pair is being loaded
+        final SnapshotDeduplicator deduplicator = deduplicate ? new SnapshotDeduplicator() : null;
+        if (pathA == null) {
+            return new SnapshotPair(null, load(pathB, deduplicator));
+        }
+        final CompletableFuture<FlowSnapshotContainer> futureA = CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(pathA, deduplicator);
+            } catch (Exception e) {
+                return null;
+            }
+        }, LOADER_EXECUTOR);
+
+        final FlowSnapshotContainer snapshotB = load(pathB, deduplicator);
+
+        try {
+            return new SnapshotPair(futureA.join(), snapshotB);
+        } catch (CompletionException e) {
+            return new SnapshotPair(null, snapshotB);
+        }
+    }
+
+    private FlowSnapshotContainer toContainer(final RegisteredFlowSnapshot snapshot, final SnapshotDeduplicator deduplicator) {
+        if (deduplicator != null) {
+            deduplicator.deduplicate(snapshot);
+        }
+        return new FlowSnapshotContainer(snapshot);
+    }
+
+    /**
+     * Both sides of a comparison, snapshot A being null when there is no original flow.
+     */
+    public record SnapshotPair(FlowSnapshotContainer snapshotA, FlowSnapshotContainer snapshotB) {
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Versions of the tool and of the NiFi flow model it is built against, used to invalidate
+ * anything persisted by a previous version or a previous build of the tool.
+ */
+public final class VersionInfo {
+
+    private static final String UNKNOWN_VERSION = "dev";
+
+    private static final String TOOL_VERSION = readVersion("com.snowflake.openflow", "flow-diff-core");
+    private static final String BUILD_ID = readBuildId();
+    private static final String NIFI_API_VERSION = readVersion("org.apache.nifi", "nifi-api");
+    private static final String NIFI_FRAMEWORK_VERSION = readVersion("org.apache.nifi", "nifi-framework-core-api");
+
+    private VersionInfo() {
+    }
+
+    public static String toolVersion() {
+        return TOOL_VERSION;
+    }
+
+    /**
+     * @return the identifier of the build of the tool, generated at build time as the version is not
+     *         changed by every change of the parser or of the rendering
+     */
+    public static String buildId() {
+        return BUILD_ID;
+    }
+
+    /**
+     * @return a single token identifying the tool version and build and the NiFi model versions
+     */
+    public static String fingerprint() {
+        return TOOL_VERSION + "-" + BUILD_ID + "_" + NIFI_API_VERSION + "_" + NIFI_FRAMEWORK_VERSION;
+    }
+
+    private static String readBuildId() {
+        try (final InputStream in = VersionInfo.class.getResourceAsStream("build.properties")) {
+            if (in == null) {
+                return UNKNOWN_VERSION;
+            }
+            final Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("build", UNKNOWN_VERSION);
+        } catch (IOException e) {
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    private static String readVersion(final String groupId, final String artifactId) {
+        final String resource = "/META-INF/maven/" + groupId + "/" + artifactId + "/pom.properties";
+        try (final InputStream in = VersionInfo.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return UNKNOWN_VERSION;
+            }
+            final Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", UNKNOWN_VERSION);
+        } catch (IOException e) {
+            return UNKNOWN_VERSION;
+        }
+    }
+}
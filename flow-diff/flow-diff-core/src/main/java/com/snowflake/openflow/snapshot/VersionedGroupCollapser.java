@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow.snapshot;
+
+import org.apache.nifi.flow.VersionedProcessGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces the child process groups that are under version control in both versions of a flow by
+ * empty copies before they are handed to the flow comparator, so that such a group is only compared
+ * by its own configuration and its {@link org.apache.nifi.flow.VersionedFlowCoordinates}, never by
+ * its contents. The comparator of NiFi descends into these groups even with the shallow strategy.
+ * <p>
+ * The snapshots are not modified: the groups leading to a versioned group are shallow copies
+ * sharing their components with the original groups.
+ */
+public final class VersionedGroupCollapser {
+
+    private VersionedGroupCollapser() {
+    }
+
+    /**
+     * @param groupA the root process group of the first version
+     * @param groupB the root process group of the second version
+     * @return the root process groups of both versions with their versioned child groups collapsed
+     */
+    public static CollapsedGroups collapse(final VersionedProcessGroup groupA, final VersionedProcessGroup groupB) {
+        final List<VersionedGroupPair> versionedGroups = new ArrayList<>();
+        final VersionedGroupPair roots = collapse(groupA, groupB, versionedGroups);
+        return new CollapsedGroups(roots.groupA(), roots.groupB(), versionedGroups);
+    }
+
+    private static VersionedGroupPair collapse(final VersionedProcessGroup groupA, final VersionedProcessGroup groupB,
+            final List<VersionedGroupPair> versionedGroups) {
+        final VersionedProcessGroup collapsedA = ProcessGroupPruner.copy(groupA);
+        final VersionedProcessGroup collapsedB = ProcessGroupPruner.copy(groupB);
+
+        final Map<String, VersionedProcessGroup> childrenB = new HashMap<>();
+        for (VersionedProcessGroup childB : groupB.getProcessGroups()) {
+            childrenB.put(childB.getIdentifier(), childB);
+        }
+
+        final Set<String> matched = new HashSet<>();
+        for (VersionedProcessGroup childA : groupA.getProcessGroups()) {
+            final VersionedProcessGroup childB = childrenB.get(childA.getIdentifier());
+            if (childB == null) {
+                collapsedA.getProcessGroups().add(childA);
+                continue;
+            }
+
+            matched.add(childA.getIdentifier());
+            if (childA.getVersionedFlowCoordinates() != null && childB.getVersionedFlowCoordinates() != null) {
+                versionedGroups.add(new VersionedGroupPair(childA, childB));
+                collapsedA.getProcessGroups().add(ProcessGroupPruner.emptyCopy(childA));
+                collapsedB.getProcessGroups().add(ProcessGroupPruner.emptyCopy(childB));
+            } else {
+                final VersionedGroupPair collapsedChildren = collapse(childA, childB, versionedGroups);
+                collapsedA.getProcessGroups().add(collapsedChildren.groupA());
+                collapsedB.getProcessGroups().add(collapsedChildren.groupB());
+            }
+        }
+
+        for (VersionedProcessGroup childB : groupB.getProcessGroups()) {
+            if (!matched.contains(childB.getIdentifier())) {
+                collapsedB.getProcessGroups().add(childB);
+            }
+        }
+
+        return new VersionedGroupPair(collapsedA, collapsedB);
+    }
+
+    /**
+     * @param groupA the collapsed root process group of the first version
+     * @param groupB the collapsed root process group of the second version
+     * @param versionedGroups the versioned child groups that have been collapsed, with their contents
+     */
+    public record CollapsedGroups(VersionedProcessGroup groupA, VersionedProcessGroup groupB, List<VersionedGroupPair> versionedGroups) {
+    }
+
+    /**
+     * @param groupA the process group in the first version
+     * @param groupB the process group with the same identifier in the second version
+     */
+    public record VersionedGroupPair(VersionedProcessGroup groupA, VersionedProcessGroup groupB) {
+    }
+}
@@ -16,41 +16,37 @@
  */
 package com.snowflake.openflow;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.snowflake.openflow.checkstyle.CheckstyleCache;
 import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleViolation;
 import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig.RuleConfig;
+import org.apache.nifi.flow.VersionedProcessGroup;
 import org.apache.nifi.registry.flow.FlowSnapshotContainer;
-import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FlowCheckstyleTest {
 
-    private static JsonFactory jsonFactory;
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
 
-    @BeforeAll
-    static void setup() {
-        final ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        objectMapper.setDefaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.NON_NULL));
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-        jsonFactory = new JsonFactory(objectMapper);
+    static CheckstyleRulesConfig readRules(final String path) throws IOException {
+        return YAML_MAPPER.readValue(new File(path), CheckstyleRulesConfig.class);
     }
 
     @Test
     void testCustomLimit() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_limit1.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_limit1.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(2, violations.size());
         assertTrue(violations.stream().anyMatch(v -> v.contains("InvokeHTTP")));
@@ -59,8 +55,8 @@ class FlowCheckstyleTest {
 
     @Test
     void testConcurrentTasksComponentExclusion() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_component_exclusions_concurrent.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_component_exclusions_concurrent.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(1, violations.size());
         assertTrue(violations.stream().anyMatch(v -> v.contains("InvokeHTTP") && v.contains("1a59f65f-8b3a-3db9-982e-e0d334bd7e9c")));
@@ -69,16 +65,16 @@ class FlowCheckstyleTest {
 
     @Test
     void testOverride() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_override.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_override.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(0, violations.size());
     }
 
     @Test
     void testExclude() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_exclude.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_exclude.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(2, violations.size());
         assertTrue(violations.stream().anyMatch(v -> v.contains("Flow snapshot metadata is missing")));
@@ -87,8 +83,8 @@ class FlowCheckstyleTest {
 
     @Test
     void testEmptyParameters() throws IOException {
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_emptyParameters.yaml");
-        FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_emptyParameters.yaml");
+        FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(3, violations.size());
         assertTrue(violations.stream().anyMatch(v -> v.contains("Parameter named `secured` is set with value `` and is not configured as a parameter that should have a default value")));
@@ -96,7 +92,7 @@ class FlowCheckstyleTest {
         assertTrue(violations.stream()
                 .anyMatch(v -> v.contains("Parameter named `should Not Have Default` is set with value `default` and is not configured as a parameter that should have a default value")));
 
-        container = FlowDiff.getFlowContainer("src/test/resources/flow_v5_property_parameter.json", jsonFactory);
+        container = FlowDiff.getFlowContainer("src/test/resources/flow_v5_property_parameter.json");
         violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(1, violations.size());
         assertTrue(violations.stream().anyMatch(v -> v.contains("Parameter named `addedParam` is set with value `addedValue` and is not configured as a parameter that should have a default value")));
@@ -104,7 +100,7 @@ class FlowCheckstyleTest {
 
     @Test
     void testUnusedParameter() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         final CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("unusedParameter"), null, null);
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(2, violations.size());
@@ -114,7 +110,7 @@ class FlowCheckstyleTest {
 
     @Test
     void testNoSelfLoop() throws IOException {
-        FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("noSelfLoop"), null, null);
         List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(1, violations.size());
@@ -123,15 +119,15 @@ class FlowCheckstyleTest {
 
     @Test
     void testNoSelfLoopComponentExclusion() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_component_exclusions_selfloop.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_component_exclusions_selfloop.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(0, violations.size());
     }
 
     @Test
     void testEnforcePrioritizerNoArgument() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         final CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("enforcePrioritizer"), null, null);
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(0, violations.size());
@@ -139,7 +135,7 @@ class FlowCheckstyleTest {
 
     @Test
     void testEnforcePrioritizerWithGlobalParameter() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         final RuleConfig ruleConfig = new CheckstyleRulesConfig.RuleConfig(Map.of("prioritizers", "org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer"), null, null, null);
         CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("enforcePrioritizer"), null, Map.of("enforcePrioritizer", ruleConfig));
         List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
@@ -148,8 +144,8 @@ class FlowCheckstyleTest {
 
     @Test
     void testEnforcePrioritizerComponentExclusion() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_component_exclusions_prioritizer.yaml");
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_component_exclusions_prioritizer.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
         assertEquals(2, violations.size());
         assertTrue(violations.stream().noneMatch(v -> v.contains("a760d0b0-51e7-34af-922a-47366dfb2892")));
@@ -157,7 +153,7 @@ class FlowCheckstyleTest {
 
     @Test
     void testEnforcePrioritizerWithOverrideParameter() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
         final RuleConfig ruleConfig = new CheckstyleRulesConfig.RuleConfig(null, Map.of(".*", Map.of("prioritizers", "org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer")), null, null);
         CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("enforcePrioritizer"), null, Map.of("enforcePrioritizer", ruleConfig));
         List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
@@ -166,7 +162,7 @@ class FlowCheckstyleTest {
 
     @Test
     void testBackpressureThresholdViolations() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
 
         container.getFlowSnapshot().getFlowContents().getConnections().iterator().next().setBackPressureDataSizeThreshold("0 B");
         container.getFlowSnapshot().getFlowContents().getConnections().iterator().next().setBackPressureObjectThreshold(0L);
@@ -181,12 +177,12 @@ class FlowCheckstyleTest {
 
     @Test
     void testBackpressureThresholdComponentExclusion() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
 
         container.getFlowSnapshot().getFlowContents().getConnections().iterator().next().setBackPressureDataSizeThreshold("0 B");
         container.getFlowSnapshot().getFlowContents().getConnections().iterator().next().setBackPressureObjectThreshold(0L);
 
-        final CheckstyleRulesConfig config = CheckstyleRulesConfig.fromFile("src/test/resources/checkstyle_component_exclusions_backpressure.yaml");
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_component_exclusions_backpressure.yaml");
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
 
         assertEquals(0, violations.size());
@@ -194,11 +190,52 @@ class FlowCheckstyleTest {
 
     @Test
     void testBackpressureThresholdNoViolationsWhenPositive() throws IOException {
-        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json", jsonFactory);
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_v6_parameter_value.json");
 
         final CheckstyleRulesConfig config = new CheckstyleRulesConfig(List.of("backpressureThreshold"), null, null);
         final List<String> violations = FlowCheckstyle.getCheckstyleViolations(container, container.getFlowSnapshot().getFlow().getName(), config);
 
         assertEquals(0, violations.size());
     }
+
+    @Test
+    void testIncrementalEvaluation() throws IOException {
+        final FlowSnapshotContainer container = FlowDiff.getFlowContainer("src/test/resources/flow_nested_v2.json");
+        final String flowName = container.getFlowSnapshot().getFlow().getName();
+        final CheckstyleRulesConfig config = readRules("src/test/resources/checkstyle_limit1.yaml");
+        final CheckstyleCache cache = new CheckstyleCache();
+
+        final List<CheckstyleViolation> initial = FlowCheckstyle.getViolations(container, flowName, config);
+        assertEquals(initial, FlowCheckstyle.getViolations(container, flowName, config, cache));
+        // the five process groups are evaluated once, then the root group is reused as a whole
+        assertEquals(0, cache.getHits());
+        assertEquals(5, cache.getMisses());
+        assertEquals(initial, FlowCheckstyle.getViolations(container, flowName, config, cache));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+
+        // changes in a nested group and in one of its siblings, the other groups being reused
+        final VersionedProcessGroup transform = container.getFlowSnapshot().getFlowContents().getProcessGroups().stream()
+                .filter(group -> group.getName().equals("Transform")).findFirst().orElseThrow();
+        transform.getProcessGroups().iterator().next().getProcessors().iterator().next().setConcurrentlySchedulableTaskCount(8);
+        final VersionedProcessGroup ingest = container.getFlowSnapshot().getFlowContents().getProcessGroups().stream()
+                .filter(group -> group.getName().equals("Ingest")).findFirst().orElseThrow();
+        ingest.getConnections().iterator().next().setBackPressureObjectThreshold(0L);
+
+        final List<CheckstyleViolation> changed = FlowCheckstyle.getViolations(container, flowName, config);
+        assertNotEquals(initial, changed);
+        assertEquals(changed, FlowCheckstyle.getViolations(container, flowName, config, cache));
+        // only Enrich, Transform, Ingest and the root group are evaluated again, Shared Library is reused
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(changed, FlowCheckstyle.getViolations(container, flowName, config, cache));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+
+        // a different configuration is not served from the cache
+        final CheckstyleRulesConfig backpressure = new CheckstyleRulesConfig(List.of("backpressureThreshold"), null, null);
+        assertEquals(FlowCheckstyle.getViolations(container, flowName, backpressure), FlowCheckstyle.getViolations(container, flowName, backpressure, cache));
+        assertEquals(0, cache.getHits());
+        assertEquals(5, cache.getMisses());
+    }
 }
@@ -0,0 +1,908 @@
+/*
+ * Copyright 2025 Snowflake Inc.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.snowflake.openflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.snowflake.openflow.Deadline.Stage;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig;
+import com.snowflake.openflow.checkstyle.CheckstyleRulesConfig.ScopeConfig;
+import com.snowflake.openflow.diff.DifferenceIndex;
+import com.snowflake.openflow.diff.DifferenceIndex.GroupDifferences;
+import com.snowflake.openflow.diff.LineDiff;
+import com.snowflake.openflow.snapshot.FlowIndex;
+import com.snowflake.openflow.snapshot.FlowTreeIndex;
+import com.snowflake.openflow.snapshot.FlowTreeIndex.FlowFile;
+import com.snowflake.openflow.snapshot.FlowTreeIndex.TreeComparison;
+import com.snowflake.openflow.snapshot.GitObjectReader;
+import com.snowflake.openflow.snapshot.ProcessGroupPruner;
+import com.snowflake.openflow.snapshot.ProcessGroupPruner.PrunedGroups;
+import com.snowflake.openflow.snapshot.SnapshotCache;
+import com.snowflake.openflow.snapshot.SnapshotHasher;
+import com.snowflake.openflow.snapshot.SnapshotLoader;
+import com.snowflake.openflow.snapshot.SnapshotLoader.SnapshotPair;
+import com.snowflake.openflow.snapshot.VersionInfo;
+import org.apache.nifi.controller.flow.VersionedDataflow;
+import org.apache.nifi.flow.ComponentType;
+import org.apache.nifi.flow.VersionedControllerService;
+import org.apache.nifi.flow.VersionedProcessGroup;
+import org.apache.nifi.flow.VersionedProcessor;
+import org.apache.nifi.registry.flow.FlowSnapshotContainer;
+import org.apache.nifi.registry.flow.RegisteredFlowSnapshot;
+import org.apache.nifi.registry.flow.diff.DifferenceType;
+import org.apache.nifi.registry.flow.diff.FlowComparatorVersionedStrategy;
+import org.apache.nifi.registry.flow.diff.FlowDifference;
+import org.apache.nifi.registry.flow.diff.StandardFlowDifference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FlowDiffTest {
+
+    @Test
+    void testDiffV1V2() throws IOException {
+        String flowV1 = "src/test/resources/flow_v1_initial.json";
+        String flowV2 = "src/test/resources/flow_v2_added_component.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV1, flowV2, false, null);
+        assertEquals(diffs.size(), 3);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.POSITION_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.COMPONENT_ADDED)));
+    }
+
+    @Test
+    void testDiffV2V3() throws IOException {
+        String flowV2 = "src/test/resources/flow_v2_added_component.json";
+        String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV2, flowV3, false, null);
+        assertEquals(diffs.size(), 13);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.RUN_SCHEDULE_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.BACKPRESSURE_DATA_SIZE_THRESHOLD_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.FLOWFILE_EXPIRATION_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.BULLETIN_LEVEL_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.CONCURRENT_TASKS_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PENALTY_DURATION_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PARAMETER_CONTEXT_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.BACKPRESSURE_OBJECT_THRESHOLD_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.AUTO_TERMINATED_RELATIONSHIPS_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.LOAD_BALANCE_STRATEGY_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.LOAD_BALANCE_COMPRESSION_CHANGED)));
+    }
+
+    @Test
+    void testDiffV3V4() throws IOException {
+        String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+        String flowV4 = "src/test/resources/flow_v4_parameters.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV3, flowV4, false, null);
+        assertEquals(diffs.size(), 14);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.INHERITED_CONTEXTS_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PARAMETER_ADDED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.SCHEDULING_STRATEGY_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_PARAMETERIZED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.NAME_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.BUNDLE_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.COMPONENT_REMOVED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.RUN_SCHEDULE_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PARAMETER_REMOVED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.DESTINATION_CHANGED)));
+    }
+
+    @Test
+    void testDiffV4V5() throws IOException {
+        String flowV4 = "src/test/resources/flow_v4_parameters.json";
+        String flowV5 = "src/test/resources/flow_v5_property_parameter.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV4, flowV5, false, null);
+        assertEquals(diffs.size(), 7);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_PARAMETERIZATION_REMOVED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.SCHEDULED_STATE_CHANGED)));
+    }
+
+    @Test
+    void testDiffV3V5() throws IOException {
+        String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+        String flowV5 = "src/test/resources/flow_v5_property_parameter.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV3, flowV5, false, null);
+        assertEquals(diffs.size(), 13);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_ADDED)));
+    }
+
+    @Test
+    void testDiffV5V6() throws IOException {
+        String flowV5 = "src/test/resources/flow_v5_property_parameter.json";
+        String flowV6 = "src/test/resources/flow_v6_parameter_value.json";
+        Set<FlowDifference> diffs = FlowDiff.getDiff(flowV5, flowV6, false, null);
+        assertEquals(diffs.size(), 11);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_ADDED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_REMOVED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PARAMETER_VALUE_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PARAMETER_ADDED)));
+    }
+
+    @Test
+    void testSemanticLoadSkipsLayoutChanges() throws IOException {
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setSemanticLoad(true);
+        final SnapshotLoader loader = new SnapshotLoader(true);
+
+        final Set<FlowDifference> diffs = FlowDiff.getDiff(new FlowDiffContext(options, loader),
+                "src/test/resources/flow_v1_initial.json", "src/test/resources/flow_v2_added_component.json", false, null);
+        assertEquals(2, diffs.size());
+        assertTrue(diffs.stream().noneMatch(d -> d.getDifferenceType().equals(DifferenceType.POSITION_CHANGED)));
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.COMPONENT_ADDED)));
+
+        final FlowSnapshotContainer container = loader.load(Path.of("src/test/resources/flow_v6_parameter_value.json"));
+        assertNull(container.getFlowSnapshot().getFlowContents().getPosition());
+        assertTrue(container.getFlowSnapshot().getFlowContents().getConnections().stream().allMatch(c -> c.getPrioritizers() != null));
+    }
+
+    @Test
+    void testSemanticLoadKeepsPropertiesNamedAsLayoutFields(@TempDir final Path directory) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final Path flowA = directory.resolve("flow_a.json");
+        final Path flowB = directory.resolve("flow_b.json");
+        for (Path path : List.of(flowA, flowB)) {
+            final ObjectNode snapshot = (ObjectNode) mapper.readTree(new File("src/test/resources/flow_v6_parameter_value.json"));
+            final ObjectNode processor = (ObjectNode) snapshot.get("flowContents").get("processors").get(0);
+            ((ObjectNode) processor.get("properties")).put("position", path == flowA ? "top" : "bottom");
+            mapper.writeValue(path.toFile(), snapshot);
+        }
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setSemanticLoad(true);
+        final Set<FlowDifference> diffs = FlowDiff.getDiff(new FlowDiffContext(options, new SnapshotLoader(true)), flowA.toString(), flowB.toString(), false, null);
+        assertTrue(diffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_CHANGED) && "position".equals(d.getFieldName().orElse(null))));
+    }
+
+    @Test
+    void testDeduplicateLoad() throws IOException {
+        final String flowA = "src/test/resources/flow_nested_v1.json";
+        final String flowB = "src/test/resources/flow_nested_v2.json";
+        final SnapshotLoader loader = new SnapshotLoader(false, true, null);
+
+        final SnapshotPair pair = loader.loadPair(flowA, flowB);
+        final VersionedProcessor processorA = pair.snapshotA().getFlowSnapshot().getFlowContents().getProcessors().iterator().next();
+        final VersionedProcessor processorB = pair.snapshotB().getFlowSnapshot().getFlowContents().getProcessors().stream()
+                .filter(processor -> processor.getIdentifier().equals(processorA.getIdentifier()))
+                .findFirst()
+                .orElseThrow();
+        assertSame(processorA.getBundle(), processorB.getBundle());
+        assertSame(processorA.getProperties(), processorB.getProperties());
+        assertSame(processorA.getType(), processorB.getType());
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setDeduplicateLoad(true);
+        final Set<FlowDifference> diffs = FlowDiff.getDiff(new FlowDiffContext(options, FlowDiff.createSnapshotLoader(options)), flowA, flowB, false, null);
+        assertEquals(descriptions(FlowDiff.getDiff(flowA, flowB, false, null)), descriptions(diffs));
+    }
+
+    @Test
+    void testSnapshotCache(@TempDir final Path cacheDirectory) throws IOException {
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setCacheDirectory(cacheDirectory);
+        final SnapshotLoader loader = FlowDiff.createSnapshotLoader(options);
+
+        final String flowV2 = "src/test/resources/flow_v2_added_component.json";
+        final String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+        final Set<FlowDifference> coldDiffs = FlowDiff.getDiff(new FlowDiffContext(options, loader), flowV2, flowV3, false, null);
+
+        // the entries of another build of the same version are not reused
+        assertTrue(VersionInfo.buildId().matches("\\d{14}"));
+        assertTrue(VersionInfo.fingerprint().contains(VersionInfo.buildId()));
+        final Path entries = cacheDirectory.resolve("snapshots").resolve(VersionInfo.fingerprint());
+        try (Stream<Path> files = Files.list(entries)) {
+            assertEquals(2, files.filter(f -> f.toString().endsWith(".smile")).count());
+        }
+
+        final Set<FlowDifference> warmDiffs = FlowDiff.getDiff(new FlowDiffContext(options, FlowDiff.createSnapshotLoader(options)), flowV2, flowV3, false, null);
+        assertEquals(13, coldDiffs.size());
+        assertEquals(coldDiffs.size(), warmDiffs.size());
+    }
+
+    @Test
+    void testMemorySnapshotCache() throws IOException {
+        final SnapshotCache cache = new SnapshotCache(null, 0, 1024 * 1024);
+        final RegisteredFlowSnapshot snapshot = FlowDiff.getFlowContainer("src/test/resources/flow_v2_added_component.json").getFlowSnapshot();
+        cache.put("v2", snapshot);
+
+        // each hit is a copy, the comparison modifies the snapshots in place
+        final RegisteredFlowSnapshot first = cache.get("v2");
+        final RegisteredFlowSnapshot second = cache.get("v2");
+        assertNotSame(first, second);
+        assertEquals(snapshot.getFlowContents().getProcessors().size(), first.getFlowContents().getProcessors().size());
+        assertNull(cache.get("v3"));
+
+        // entries bigger than the budget are not kept
+        final SnapshotCache tinyCache = new SnapshotCache(null, 0, 16);
+        tinyCache.put("v2", snapshot);
+        assertNull(tinyCache.get("v2"));
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setMemoryCacheSizeMb(16);
+        final SnapshotLoader loader = FlowDiff.createSnapshotLoader(options);
+        final String flowV2 = "src/test/resources/flow_v2_added_component.json";
+        final String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+        final Set<FlowDifference> coldDiffs = FlowDiff.getDiff(new FlowDiffContext(options, loader), flowV2, flowV3, false, null);
+        final Set<FlowDifference> warmDiffs = FlowDiff.getDiff(new FlowDiffContext(options, loader), flowV2, flowV3, false, null);
+        assertEquals(coldDiffs.size(), warmDiffs.size());
+    }
+
+    @Test
+    void testResultStore(@TempDir final Path cacheDirectory) throws IOException {
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setCacheDirectory(cacheDirectory);
+        options.setCacheResults(true);
+
+        final List<String> pathsA = List.of("src/test/resources/flow_v2_added_component.json", "src/test/resources/does_not_exist.json");
+        final List<String> pathsB = List.of("src/test/resources/flow_v3_config_changes.json", "src/test/resources/flow_v1_initial.json");
+        final List<FlowDiffContext> cold = FlowDiff.executeFlowDiffs(pathsA, pathsB, true, null, options);
+        final List<FlowDiffContext> warm = FlowDiff.executeFlowDiffs(pathsA, pathsB, true, null, options);
+
+        for (int i = 0; i < pathsA.size(); i++) {
+            assertFalse(cold.get(i).isResultReused());
+            assertTrue(warm.get(i).isResultReused());
+            assertEquals(cold.get(i).getOutput(), warm.get(i).getOutput());
+            assertEquals(cold.get(i).hasCheckstyleViolations(), warm.get(i).hasCheckstyleViolations());
+        }
+
+        // a different checkstyle configuration is a different result
+        final List<FlowDiffContext> withoutCheckstyle = FlowDiff.executeFlowDiffs(pathsA, pathsB, false, null, options);
+        assertFalse(withoutCheckstyle.getFirst().isResultReused());
+
+        // so are different process group scopes, even without checkstyle
+        final CheckstyleRulesConfig scoped = FlowCheckstyleTest.readRules("src/test/resources/checkstyle_scope.yaml");
+        assertFalse(FlowDiff.executeFlowDiffs(pathsA, pathsB, false, scoped, options).getFirst().isResultReused());
+        assertTrue(FlowDiff.executeFlowDiffs(pathsA, pathsB, false, scoped, options).getFirst().isResultReused());
+    }
+
+    @Test
+    void testDeadline(@TempDir final Path cacheDirectory) throws Exception {
+        // a stage that cannot check the deadline is abandoned once the deadline is reached
+        final Deadline deadline = Deadline.after(50);
+        final DeadlineExceededException exceeded = assertThrows(DeadlineExceededException.class, () -> deadline.call(Stage.COMPARE, () -> {
+            Thread.sleep(10_000);
+            return null;
+        }));
+        assertEquals(Stage.COMPARE, exceeded.getStage());
+        assertTrue(exceeded.getElapsedMillis() >= 50);
+
+        // a stage ignoring the interruption is counted until it returns
+        final AtomicInteger abandonedStages = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(20, abandonedStages).call(Stage.COMPARE, () -> {
+            while (release.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            return null;
+        }));
+        assertEquals(1, abandonedStages.get());
+        release.countDown();
+        awaitNoAbandonedStages(abandonedStages);
+
+        // a stage checking the interruption stops at the next step, the counter is kept within the run deadline
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(0, abandonedStages).within(Deadline.after(20)).call(Stage.CHECKSTYLE, () -> {
+            while (true) {
+                Deadline.checkInterrupted(Stage.CHECKSTYLE);
+                Thread.onSpinWait();
+            }
+        }));
+        awaitNoAbandonedStages(abandonedStages);
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setCacheDirectory(cacheDirectory);
+        options.setCacheResults(true);
+        final String flowA = "src/test/resources/flow_v2_added_component.json";
+        final String flowB = "src/test/resources/flow_v3_config_changes.json";
+
+        // the budget is exhausted before the flows are parsed, only the notice is reported
+        final FlowDiffContext context = new FlowDiffContext(options, FlowDiff.createSnapshotLoader(options));
+        context.setDeadline(Deadline.after(1));
+        Thread.sleep(5);
+        FlowDiff.executeFlowDiffForOneFlow(context, FlowDiff.createResultStore(options), flowA, flowB, true, null);
+        assertTrue(context.isTruncated());
+        assertEquals(Stage.PARSE, context.getTruncation().getStage());
+        assertTrue(context.getOutput().startsWith("### Executing Snowflake Flow Diff for flow: `" + flowB + "`"));
+        assertTrue(context.getOutput().contains("ms in stage `parse`, the report of this flow is incomplete."));
+        assertFalse(context.getOutput().contains("Checkstyle"));
+
+        // truncated reports are not stored
+        final FlowDiffContext complete = FlowDiff.executeFlowDiffs(List.of(flowA), List.of(flowB), true, null, options).getFirst();
+        assertFalse(complete.isResultReused());
+        assertFalse(complete.isTruncated());
+        assertTrue(complete.getOutput().contains("#### Flow Changes"));
+    }
+
+    private static void awaitNoAbandonedStages(final AtomicInteger abandonedStages) throws InterruptedException {
+        final long start = System.nanoTime();
+        while (abandonedStages.get() > 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, abandonedStages.get());
+    }
+
+    @Test
+    void testLayoutOnlyChangesShortCircuit() throws IOException {
+        final String flowV2 = "src/test/resources/flow_v2_added_component.json";
+        final String flowV2Layout = "src/test/resources/flow_v2_layout_only.json";
+        final String flowV3 = "src/test/resources/flow_v3_config_changes.json";
+
+        assertEquals(SnapshotHasher.semanticHash(FlowDiff.getFlowContainer(flowV2).getFlowSnapshot()),
+                SnapshotHasher.semanticHash(FlowDiff.getFlowContainer(flowV2Layout).getFlowSnapshot()));
+        assertNotEquals(SnapshotHasher.semanticHash(FlowDiff.getFlowContainer(flowV2).getFlowSnapshot()),
+                SnapshotHasher.semanticHash(FlowDiff.getFlowContainer(flowV3).getFlowSnapshot()));
+
+        final Set<FlowDifference> diffs = FlowDiff.getDiff(flowV2, flowV2Layout, false, null);
+        assertTrue(diffs.isEmpty());
+
+        // properties named as layout fields are not layout
+        final RegisteredFlowSnapshot snapshot = FlowDiff.getFlowContainer(flowV3).getFlowSnapshot();
+        final String hash = SnapshotHasher.semanticHash(snapshot);
+        snapshot.getFlowContents().getProcessors().iterator().next().getProperties().put("style", "bold");
+        assertNotEquals(hash, SnapshotHasher.semanticHash(snapshot));
+    }
+
+    @Test
+    void testPruneUnchangedGroups() throws IOException {
+        final String flowA = "src/test/resources/flow_nested_v1.json";
+        final String flowB = "src/test/resources/flow_nested_v2.json";
+
+        final Set<FlowDifference> fullDiffs = FlowDiff.getDiff(flowA, flowB, false, null);
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setPruneUnchangedGroups(true);
+        final Set<FlowDifference> prunedDiffs = FlowDiff.getDiff(new FlowDiffContext(options, new SnapshotLoader()), flowA, flowB, false, null);
+
+        assertFalse(fullDiffs.isEmpty());
+        assertEquals(descriptions(fullDiffs), descriptions(prunedDiffs));
+
+        final RegisteredFlowSnapshot snapshotA = FlowDiff.getFlowContainer(flowA).getFlowSnapshot();
+        final RegisteredFlowSnapshot snapshotB = FlowDiff.getFlowContainer(flowB).getFlowSnapshot();
+        final PrunedGroups pruned = ProcessGroupPruner.prune(snapshotA.getFlowContents(), SnapshotHasher.hash(snapshotA).processGroupHashes(),
+                snapshotB.getFlowContents(), SnapshotHasher.hash(snapshotB).processGroupHashes());
+        final Set<String> childGroups = pruned.groupB().getProcessGroups().stream().map(VersionedProcessGroup::getName).collect(Collectors.toSet());
+        assertEquals(Set.of("Transform", "Shared Library"), childGroups);
+        assertEquals(3, snapshotB.getFlowContents().getProcessGroups().size());
+    }
+
+    @Test
+    void testDifferenceIndexOrder() throws IOException {
+        final String flowA = "src/test/resources/flow_nested_v1.json";
+        final String flowB = "src/test/resources/flow_nested_v2.json";
+
+        final FlowDiffContext context = new FlowDiffContext();
+        final List<FlowDifference> first = List.copyOf(FlowDiff.getDiff(context, flowA, flowB, false, null));
+        final List<FlowDifference> second = List.copyOf(FlowDiff.getDiff(flowA, flowB, false, null));
+        assertEquals(first.stream().map(FlowDifference::getDescription).toList(), second.stream().map(FlowDifference::getDescription).toList());
+
+        final List<String> groupPaths = context.getDifferenceIndex().getGroups().stream().map(GroupDifferences::groupPath).toList();
+        assertEquals(groupPaths.stream().sorted().toList(), groupPaths);
+        assertTrue(groupPaths.contains("/Nested/Transform/Enrich"));
+        assertEquals(first, context.getDifferenceIndex().getGroups().stream()
+                .flatMap(group -> group.components().stream())
+                .flatMap(component -> component.differences().stream())
+                .toList());
+
+        // differences with the same component, type and description are ordered by their values
+        final VersionedProcessor unnamed = new VersionedProcessor();
+        unnamed.setComponentType(ComponentType.PROCESSOR);
+        final List<FlowDifference> sameKeys = IntStream.range(0, 20)
+                .mapToObj(i -> (FlowDifference) new StandardFlowDifference(DifferenceType.COMMENTS_CHANGED, unnamed, unnamed, "a" + i, "b" + i, "comments"))
+                .toList();
+        final List<FlowDifference> ordered = List.copyOf(DifferenceIndex.of(sameKeys, Map.of()).getDifferences());
+        assertEquals(ordered, List.copyOf(DifferenceIndex.of(sameKeys.reversed(), Map.of()).getDifferences()));
+        assertEquals(sameKeys.stream().map(FlowDifference::getValueA).sorted().toList(), ordered.stream().map(FlowDifference::getValueA).toList());
+    }
+
+    private static List<String> descriptions(final Set<FlowDifference> diffs) {
+        return diffs.stream().map(FlowDifference::getDescription).sorted().toList();
+    }
+
+    @Test
+    void testFlowIndex() throws IOException {
+        final RegisteredFlowSnapshot nested = FlowDiff.getFlowContainer("src/test/resources/flow_nested_v2.json").getFlowSnapshot();
+        final FlowIndex nestedIndex = FlowIndex.of(nested);
+        final VersionedProcessGroup enrich = nestedIndex.getProcessGroups().values().stream()
+                .filter(group -> group.getName().equals("Enrich"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Transform", nestedIndex.getParentGroup(enrich.getIdentifier()).getName());
+        assertNull(nestedIndex.getParentGroup(nested.getFlowContents().getIdentifier()));
+        assertEquals(5, nestedIndex.getProcessGroups().size());
+
+        final VersionedControllerService service = new VersionedControllerService();
+        service.setIdentifier("service-id");
+        service.setName("My SSL Context Service");
+        nested.getFlowContents().getControllerServices().add(service);
+        final FlowIndex serviceIndex = FlowIndex.of(nested);
+        assertEquals("My SSL Context Service", FlowDiff.printPropertyValue(serviceIndex, "service-id"));
+        assertEquals("unknown-id", FlowDiff.printPropertyValue(serviceIndex, "unknown-id"));
+
+        // a reference moved to another service with the same name keeps the identifiers
+        final RegisteredFlowSnapshot moved = FlowDiff.getFlowContainer("src/test/resources/flow_nested_v2.json").getFlowSnapshot();
+        final VersionedControllerService otherService = new VersionedControllerService();
+        otherService.setIdentifier("other-service-id");
+        otherService.setName("My SSL Context Service");
+        moved.getFlowContents().getControllerServices().add(otherService);
+        final FlowIndex movedIndex = FlowIndex.of(moved);
+        assertEquals("`My SSL Context Service (service-id)` to `My SSL Context Service (other-service-id)`",
+                FlowDiff.printPropertyChange(serviceIndex, "service-id", movedIndex, "other-service-id", 3));
+        assertEquals("`My SSL Context Service` to `unknown-id`", FlowDiff.printPropertyChange(serviceIndex, "service-id", movedIndex, "unknown-id", 3));
+
+        // and a name shared by several services of the flow is always followed by the identifier
+        moved.getFlowContents().getControllerServices().add(service);
+        assertEquals("My SSL Context Service (service-id)", FlowDiff.printPropertyValue(FlowIndex.of(moved), "service-id"));
+
+        final FlowIndex parametersIndex = FlowIndex.of(FlowDiff.getFlowContainer("src/test/resources/flow_v4_parameters.json").getFlowSnapshot());
+        assertEquals("new param", parametersIndex.getParameter("Test Parameter Context", "new param").getName());
+        assertNull(parametersIndex.getParameter("Test Parameter Context", "secured"));
+    }
+
+    @Test
+    void testProcessGroupScope() throws IOException {
+        final String flowA = "src/test/resources/flow_nested_v1.json";
+        final String flowB = "src/test/resources/flow_nested_v2.json";
+        final CheckstyleRulesConfig rulesConfig = FlowCheckstyleTest.readRules("src/test/resources/checkstyle_scope.yaml");
+
+        final Set<FlowDifference> fullDiffs = FlowDiff.getDiff(flowA, flowB, false, null);
+        assertTrue(fullDiffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.CONCURRENT_TASKS_CHANGED)));
+
+        final FlowDiffContext context = new FlowDiffContext();
+        final Set<FlowDifference> scopedDiffs = FlowDiff.getDiff(context, flowA, flowB, true, rulesConfig);
+        assertFalse(scopedDiffs.isEmpty());
+        assertTrue(scopedDiffs.stream().noneMatch(d -> d.getDifferenceType().equals(DifferenceType.CONCURRENT_TASKS_CHANGED)));
+        assertTrue(context.getCheckstyleViolations().isEmpty());
+        assertEquals(Set.of("Nested", "Transform", "Enrich"),
+                context.getProcessGroups().values().stream().map(VersionedProcessGroup::getName).collect(Collectors.toSet()));
+        assertTrue(context.getFlowIndexB().getProcessGroups().values().stream()
+                .filter(group -> group.getName().equals("Nested"))
+                .allMatch(group -> group.getProcessors().isEmpty()));
+
+        final CheckstyleRulesConfig excludeConfig = new CheckstyleRulesConfig(List.of("concurrentTasks"), null, rulesConfig.rules(),
+                Map.of("Nest.*", new ScopeConfig(null, List.of("/Shared*"))));
+        final FlowDiffContext excludeContext = new FlowDiffContext();
+        final Set<FlowDifference> excludeDiffs = FlowDiff.getDiff(excludeContext, flowA, flowB, true, excludeConfig);
+        assertEquals(descriptions(scopedDiffs), descriptions(excludeDiffs));
+        assertTrue(excludeContext.getCheckstyleViolations().isEmpty());
+        assertEquals(4, excludeContext.getProcessGroups().size());
+    }
+
+    @Test
+    void testShallowVersionedStrategy() throws IOException {
+        final String flowA = "src/test/resources/flow_nested_v1.json";
+        final String flowB = "src/test/resources/flow_nested_v2.json";
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(new String[] {"--versioned-strategy=shallow"});
+        assertEquals(FlowComparatorVersionedStrategy.SHALLOW, options.getVersionedStrategy());
+
+        final Set<FlowDifference> deepDiffs = FlowDiff.getDiff(flowA, flowB, false, null);
+        final Set<FlowDifference> shallowDiffs = FlowDiff.getDiff(new FlowDiffContext(options, new SnapshotLoader()), flowA, flowB, false, null);
+
+        // the versioned group is only compared by its coordinates
+        assertTrue(shallowDiffs.stream().anyMatch(d -> d.getDifferenceType().equals(DifferenceType.VERSIONED_FLOW_COORDINATES_CHANGED)));
+        assertTrue(shallowDiffs.stream().noneMatch(d -> d.getDifferenceType().equals(DifferenceType.CONCURRENT_TASKS_CHANGED)));
+        assertEquals(deepDiffs.stream().filter(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_ADDED)).count(),
+                shallowDiffs.stream().filter(d -> d.getDifferenceType().equals(DifferenceType.PROPERTY_ADDED)).count());
+
+        // the changes of a pair of versions are computed once for all the flows of the run
+        options.setVersionedFlowChanges(true);
+        final List<FlowDiffContext> contexts = FlowDiff.executeFlowDiffs(List.of(flowA, flowA), List.of(flowB, flowB), false, null, options);
+        assertSame(contexts.get(0).getVersionedFlowChanges(), contexts.get(1).getVersionedFlowChanges());
+        assertEquals(1, contexts.get(0).getVersionedFlowChanges().size());
+        assertTrue(contexts.get(0).getOutput().contains("  - Concurrent Tasks Changed in Processor of type `UpdateAttribute`"));
+        assertEquals(contexts.get(0).getOutput(), contexts.get(1).getOutput());
+    }
+
+    @Test
+    void testSharedSubflows(@TempDir final Path cacheDirectory) throws IOException {
+        final List<String> pathsA = List.of("src/test/resources/flow_nested_v1.json", "src/test/resources/flow_nested_v1.json");
+        final List<String> pathsB = List.of("src/test/resources/flow_nested_v2.json", "src/test/resources/flow_nested_v2.json");
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(new String[] {"--shared-subflows=true"});
+        options.setCacheDirectory(cacheDirectory);
+        options.setCacheResults(true);
+
+        // the change of the versioned group is compared and rendered once for both flows
+        final List<FlowDiffContext> cold = FlowDiff.executeFlowDiffs(pathsA, pathsB, false, null, options);
+        assertEquals(1, cold.get(0).getSharedChanges().size());
+        assertSame(cold.get(0).getSharedChanges().getFirst(), cold.get(1).getSharedChanges().getFirst());
+        assertEquals(1, cold.get(0).getSharedSubflows().size());
+
+        final String report = cold.get(0).getSharedChanges().getFirst().getReport();
+        assertTrue(report.contains("the number of concurrent tasks has been increased from `1` to `2`"));
+        assertFalse(report.contains("Versioned Flow Coordinates"));
+        assertTrue(cold.get(0).getOutput().contains("Versioned Flow Coordinates for the Process Group `Shared Library`"));
+        assertTrue(cold.get(0).getOutput().contains("- The changes of the Process Group `Shared Library` (flow `shared`, version `1` to `2`)"));
+        assertFalse(cold.get(0).getOutput().contains("concurrent tasks"));
+
+        // the reused reports still list the shared change
+        final List<FlowDiffContext> warm = FlowDiff.executeFlowDiffs(pathsA, pathsB, false, null, options);
+        assertTrue(warm.get(0).isResultReused());
+        assertEquals(report, warm.get(0).getSharedChanges().getFirst().getReport());
+        assertSame(warm.get(0).getSharedChanges().getFirst(), warm.get(1).getSharedChanges().getFirst());
+    }
+
+    @Test
+    void testHistory(@TempDir final Path historyDirectory) throws IOException {
+        Files.copy(Path.of("src/test/resources/flow_v1_initial.json"), historyDirectory.resolve("flow_v1.json"));
+        Files.copy(Path.of("src/test/resources/flow_v2_added_component.json"), historyDirectory.resolve("flow_v2.json"));
+        Files.copy(Path.of("src/test/resources/flow_v3_config_changes.json"), historyDirectory.resolve("flow_v10.json"));
+        Files.writeString(historyDirectory.resolve("notes.txt"), "not a flow");
+
+        final List<Path> versions = FlowHistory.versions(historyDirectory.toString());
+        assertEquals(List.of("flow_v1.json", "flow_v2.json", "flow_v10.json"),
+                versions.stream().map(path -> path.getFileName().toString()).toList());
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+        assertFalse(FlowHistory.execute(versions, false, null, new FlowDiffOptions(), out));
+
+        final String report = output.toString(StandardCharsets.UTF_8);
+        final int first = report.indexOf("from `flow_v1.json` to `flow_v2.json`");
+        final int second = report.indexOf("from `flow_v2.json` to `flow_v10.json`");
+        assertTrue(first >= 0 && second > first);
+
+        final FlowDiffContext context = new FlowDiffContext();
+        FlowDiff.executeFlowDiffForOneFlow(context, null, "src/test/resources/flow_v2_added_component.json",
+                "src/test/resources/flow_v3_config_changes.json", false, null);
+        assertTrue(report.substring(second).contains(context.getOutput().substring(context.getOutput().indexOf("#### Flow Changes"))));
+    }
+
+    @Test
+    void testFlowTreeIndex(@TempDir final Path directory) throws IOException {
+        final Path rootA = Files.createDirectories(directory.resolve("a"));
+        final Path rootB = Files.createDirectories(directory.resolve("b"));
+        // renamed file, paired by its flow identifier
+        Files.copy(Path.of("src/test/resources/flow_v1_initial.json"), rootA.resolve("one.json"));
+        Files.copy(Path.of("src/test/resources/flow_v2_added_component.json"), Files.createDirectories(rootB.resolve("renamed")).resolve("one_v2.json"));
+        // byte-identical files
+        copyWithFlowIdentifier("src/test/resources/flow_nested_v1.json", rootA.resolve("same.json"), "same");
+        copyWithFlowIdentifier("src/test/resources/flow_nested_v1.json", rootB.resolve("same.json"), "same");
+        copyWithFlowIdentifier("src/test/resources/flow_v3_config_changes.json", rootA.resolve("gone.json"), "gone");
+        copyWithFlowIdentifier("src/test/resources/flow_v4_parameters.json", rootB.resolve("new.json"), "new");
+
+        final TreeComparison tree = FlowTreeIndex.compare(rootA, rootB, 2);
+        assertEquals(List.of(rootB.resolve("new.json").toString(), rootB.resolve("renamed/one_v2.json").toString()), tree.pathsB());
+        assertNull(tree.pathsA().get(0));
+        assertEquals(rootA.resolve("one.json").toString(), tree.pathsA().get(1));
+        assertEquals(1, tree.added());
+        assertEquals(1, tree.unchanged());
+        assertEquals(List.of("gone"), tree.removed().stream().map(FlowFile::flowIdentifier).toList());
+
+        final List<FlowDiffContext> contexts = FlowDiff.executeFlowDiffs(tree.pathsA(), tree.pathsB(), false, null, new FlowDiffOptions());
+        assertTrue(contexts.get(1).getOutput().contains("#### Flow Changes"));
+
+        // the added flow is also compared in parallel and with the result store
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setParallelism(2);
+        options.setCacheDirectory(directory.resolve("cache"));
+        options.setCacheResults(true);
+        final List<FlowDiffContext> parallel = FlowDiff.executeFlowDiffs(tree.pathsA(), tree.pathsB(), false, null, options);
+        assertEquals(contexts.get(0).getOutput(), parallel.get(0).getOutput());
+        assertTrue(FlowDiff.executeFlowDiffs(tree.pathsA(), tree.pathsB(), false, null, options).get(0).isResultReused());
+    }
+
+    private static void copyWithFlowIdentifier(final String source, final Path target, final String flowIdentifier) throws IOException {
+        final String content = Files.readString(Path.of(source))
+                .replaceFirst("\"identifier\" : \"test\"", "\"identifier\" : \"" + flowIdentifier + "\"")
+                .replace("\"flowIdentifier\" : \"test\"", "\"flowIdentifier\" : \"" + flowIdentifier + "\"");
+        Files.writeString(target, content);
+    }
+
+    @Test
+    void testGitObjects() throws Exception {
+        assumeTrue(isGitRepository(), "the test resources are not in a git repository");
+
+        final FlowDiffOptions options = FlowDiffOptions.fromArguments(new String[] {"--git-objects=true"});
+        final List<FlowDiffContext> fromGit = FlowDiff.executeFlowDiffs(
+                List.of("HEAD:./src/test/resources/flow_v1_initial.json", "HEAD:./src/test/resources/does_not_exist.json"),
+                List.of("HEAD:./src/test/resources/flow_v2_added_component.json", "src/test/resources/flow_v1_initial.json"),
+                false, null, options);
+        final List<FlowDiffContext> fromFiles = FlowDiff.executeFlowDiffs(
+                List.of("src/test/resources/flow_v1_initial.json", "src/test/resources/does_not_exist.json"),
+                List.of("src/test/resources/flow_v2_added_component.json", "src/test/resources/flow_v1_initial.json"),
+                false, null, new FlowDiffOptions());
+        assertEquals(fromFiles.get(0).getOutput(), fromGit.get(0).getOutput());
+        assertEquals(fromFiles.get(1).getOutput(), fromGit.get(1).getOutput());
+
+        try (GitObjectReader reader = new GitObjectReader(Path.of("").toAbsolutePath())) {
+            assertNull(reader.objectId("HEAD:./src/test/resources/does_not_exist.json"));
+            assertThrows(IOException.class, () -> reader.read("HEAD:./src/test/resources"));
+            assertEquals(Files.size(Path.of("src/test/resources/flow_v1_initial.json")),
+                    reader.read("HEAD:./src/test/resources/flow_v1_initial.json").remaining());
+        }
+    }
+
+    private static boolean isGitRepository() throws InterruptedException {
+        try {
+            return new ProcessBuilder("git", "rev-parse", "--verify", "HEAD:./src/test/resources/flow_v1_initial.json").start().waitFor() == 0;
+        } catch (IOException e) {
+            // git is not installed
+            return false;
+        }
+    }
+
+    @Test
+    void testCompressedFlowsAndDataflows(@TempDir final Path directory) throws IOException {
+        final Path compressed = directory.resolve("flow_v1.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(Path.of("src/test/resources/flow_v1_initial.json"), out);
+        }
+        final FlowDiffContext plain = new FlowDiffContext();
+        FlowDiff.executeFlowDiffForOneFlow(plain, null, "src/test/resources/flow_v1_initial.json",
+                "src/test/resources/flow_v2_added_component.json", false, null);
+        final FlowDiffContext fromGzip = new FlowDiffContext();
+        FlowDiff.executeFlowDiffForOneFlow(fromGzip, null, compressed.toString(),
+                "src/test/resources/flow_v2_added_component.json", false, null);
+        assertEquals(plain.getOutput(), fromGzip.getOutput());
+
+        // the dataflow of a NiFi instance has the contents of the flow as root group
+        final Path dataflowA = writeDataflow("src/test/resources/flow_v1_initial.json", directory.resolve("flow_a.json.gz"));
+        final Path dataflowB = writeDataflow("src/test/resources/flow_v2_added_component.json", directory.resolve("flow_b.json.gz"));
+        final FlowDiffContext fromDataflows = new FlowDiffContext();
+        FlowDiff.executeFlowDiffForOneFlow(fromDataflows, null, dataflowA.toString(), dataflowB.toString(), false, null);
+        final String changes = plain.getOutput().substring(plain.getOutput().indexOf("#### Flow Changes"));
+        assertEquals(changes, fromDataflows.getOutput().substring(fromDataflows.getOutput().indexOf("#### Flow Changes")));
+    }
+
+    private static Path writeDataflow(final String snapshotPath, final Path target) throws IOException {
+        final RegisteredFlowSnapshot snapshot = FlowDiff.getFlowContainer(snapshotPath).getFlowSnapshot();
+        final VersionedDataflow dataflow = new VersionedDataflow();
+        dataflow.setMaxTimerDrivenThreadCount(10);
+        dataflow.setRootGroup(snapshot.getFlowContents());
+        dataflow.setParameterContexts(List.copyOf(snapshot.getParameterContexts().values()));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            new ObjectMapper().writeValue(out, dataflow);
+        }
+        return target;
+    }
+
+    @Test
+    void testLineDiff() {
+        final String original = IntStream.rangeClosed(1, 40).mapToObj(String::valueOf).collect(Collectors.joining("\n"));
+        final String changed = original.replace("\n10\n", "\nten\n");
+        assertEquals("@@ -7,7 +7,7 @@\n 7\n 8\n 9\n-10\n+ten\n 11\n 12\n 13\n", LineDiff.unified(original, changed, 3));
+
+        // changes separated by more than twice the context are in distinct hunks
+        assertEquals(2, LineDiff.unified(original, changed.replace("\n30\n", "\n\n"), 3).lines().filter(line -> line.startsWith("@@")).count());
+        assertEquals(1, LineDiff.unified(original, changed.replace("\n14\n", "\n\n"), 3).lines().filter(line -> line.startsWith("@@")).count());
+        assertEquals("@@ -0,0 +1,1 @@\n+0\n", LineDiff.unified(original, "0\n" + original, 0));
+        assertEquals("", LineDiff.unified(original, original.replace("\n", "\r\n"), 3));
+
+        // both values can be rebuilt from a diff with the whole context
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            final String valueA = randomLines(random);
+            final String valueB = randomLines(random);
+            final List<String> lines = LineDiff.unified(valueA, valueB, Integer.MAX_VALUE / 4).lines().filter(line -> !line.startsWith("@@")).toList();
+            assertEquals(valueA.lines().toList(), lines.stream().filter(line -> !line.startsWith("+")).map(line -> line.substring(1)).toList());
+            assertEquals(valueB.lines().toList(), lines.stream().filter(line -> !line.startsWith("-")).map(line -> line.substring(1)).toList());
+        }
+
+        final FlowDiffContext context = new FlowDiffContext();
+        assertTrue(FlowDiff.printFromTo(original, changed, context.getOptions().getDiffContext()).startsWith("\n```diff\n@@ -7,7 +7,7 @@\n"));
+        assertTrue(FlowDiff.printFromTo(original, changed, -1).contains("\n```\nto\n```\n"));
+
+        // values with the same lines are printed in full with a note instead of an empty diff
+        final String lineEndings = FlowDiff.printFromTo(original, original.replace("\n", "\r\n"), 3);
+        assertTrue(lineEndings.contains("\n```\nto\n```\n"));
+        assertTrue(lineEndings.endsWith("_Only the line endings have changed._"));
+        assertTrue(FlowDiff.printFromTo(original, original + "\n", 3).endsWith("_Only the line endings have changed._"));
+
+        // a context larger than any value is capped when the option is parsed
+        assertEquals(FlowDiffOptions.MAX_DIFF_CONTEXT, FlowDiffOptions.fromArguments(new String[] {"--diff-context=" + Integer.MAX_VALUE}).getDiffContext());
+        // the header, the unchanged lines, the removed and the added line
+        assertEquals(original.lines().count() + 2, LineDiff.unified(original, changed, Integer.MAX_VALUE).lines().count());
+    }
+
+    private static String randomLines(final Random random) {
+        return IntStream.range(0, random.nextInt(12)).mapToObj(i -> String.valueOf((char) ('a' + random.nextInt(4)))).collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    void testSummaryMode() {
+        final Set<FlowDifference> diffs = new LinkedHashSet<>();
+        for (int i = 0; i < 10; i++) {
+            final VersionedProcessor processor = new VersionedProcessor();
+            processor.setIdentifier("processor-" + i);
+            processor.setName("Processor " + i);
+            processor.setComponentType(ComponentType.PROCESSOR);
+            processor.setType("org.apache.nifi.processors.standard.LogAttribute");
+            diffs.add(new StandardFlowDifference(DifferenceType.BULLETIN_LEVEL_CHANGED, processor, processor, "WARN", "ERROR", "bulletin level"));
+        }
+        final VersionedProcessor renamed = new VersionedProcessor();
+        renamed.setIdentifier("renamed");
+        renamed.setName("New Name");
+        renamed.setComponentType(ComponentType.PROCESSOR);
+        renamed.setType("org.apache.nifi.processors.standard.LogAttribute");
+        diffs.add(new StandardFlowDifference(DifferenceType.NAME_CHANGED, renamed, renamed, "Old Name", "New Name", "name"));
+
+        final FlowDiffOptions options = new FlowDiffOptions();
+        options.setSummaryThreshold(5);
+        final FlowDiffContext context = new FlowDiffContext(options, new SnapshotLoader());
+        FlowDiff.printFlowDiff(context, diffs, false);
+
+        final List<String> lines = context.getOutput().lines().filter(line -> line.startsWith("- ")).toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("in 10 components from `WARN` to `ERROR`: Processor of type `LogAttribute` named `Processor 0`, "));
+        assertTrue(lines.get(0).endsWith("named `Processor 4` and 5 more"));
+        assertTrue(lines.get(1).contains("has been renamed from `Old Name` to `New Name`"));
+
+        // below the threshold every change has its own line
+        final FlowDiffContext detailed = new FlowDiffContext();
+        FlowDiff.printFlowDiff(detailed, diffs, false);
+        assertEquals(11, detailed.getOutput().lines().filter(line -> line.startsWith("- ")).count());
+
+        // layout changes are neither counted nor aggregated
+        final Set<FlowDifference> withLayout = new LinkedHashSet<>();
+        for (int i = 0; i < 3; i++) {
+            final VersionedProcessor processor = new VersionedProcessor();
+            processor.setIdentifier("moved-" + i);
+            processor.setName("Moved " + i);
+            processor.setComponentType(ComponentType.PROCESSOR);
+            processor.setType("org.apache.nifi.processors.standard.LogAttribute");
+            withLayout.add(new StandardFlowDifference(DifferenceType.POSITION_CHANGED, processor, processor, "0, 0", "10, " + i, "position"));
+            withLayout.add(new StandardFlowDifference(DifferenceType.SIZE_CHANGED, processor, processor, "10, 10", "20, 20", "size"));
+        }
+        withLayout.add(new StandardFlowDifference(DifferenceType.NAME_CHANGED, renamed, renamed, "Old Name", "New Name", "name"));
+        final FlowDiffOptions layoutOptions = new FlowDiffOptions();
+        layoutOptions.setSummaryThreshold(1);
+        final FlowDiffContext layoutContext = new FlowDiffContext(layoutOptions, new SnapshotLoader());
+        FlowDiff.printFlowDiff(layoutContext, withLayout, false);
+        assertFalse(layoutContext.getOutput().contains("distinct changes"));
+        assertEquals(List.of("- A Processor of type `LogAttribute` named `New Name` has been renamed from `Old Name` to `New Name`"),
+                layoutContext.getOutput().lines().filter(line -> line.startsWith("- ")).toList());
+
+        withLayout.addAll(diffs);
+        final FlowDiffContext mixedContext = new FlowDiffContext(layoutOptions, new SnapshotLoader());
+        FlowDiff.printFlowDiff(mixedContext, withLayout, false);
+        assertTrue(mixedContext.getOutput().contains("_11 changes, the identical changes of several components are listed together (2 distinct changes)_"));
+        assertEquals(2, mixedContext.getOutput().lines().filter(line -> line.startsWith("- ")).count());
+    }
+
+    @Test
+    void testDiffWithoutOriginalFlow() throws IOException {
+        final FlowDiffContext context = new FlowDiffContext();
+        final Set<FlowDifference> diffs = FlowDiff.getDiff(context, "src/test/resources/does_not_exist.json",
+                "src/test/resources/flow_v1_initial.json", false, null);
+        assertNull(diffs);
+        assertFalse(context.getProcessGroups().isEmpty());
+    }
+
+    @Test
+    void testEngine() throws Exception {
+        final CheckstyleRulesConfig rulesConfig = FlowCheckstyleTest.readRules("src/test/resources/checkstyle_limit1.yaml");
+        try (FlowDiffEngine engine = new FlowDiffEngine()) {
+            // the same engine serves concurrent comparisons
+            final List<CompletableFuture<FlowDiffResult>> futures = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return engine.compare("src/test/resources/flow_v5_property_parameter.json",
+                                    "src/test/resources/flow_v6_parameter_value.json", true, rulesConfig);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }))
+                    .toList();
+            final FlowDiffResult result = futures.getFirst().get();
+            for (CompletableFuture<FlowDiffResult> future : futures) {
+                assertEquals(result.report(), future.get().report());
+            }
+
+            assertEquals(FlowDiff.getDiff("src/test/resources/flow_v5_property_parameter.json",
+                    "src/test/resources/flow_v6_parameter_value.json", false, null).size(), result.differences().size());
+            assertEquals(2, result.checkstyleViolations().size());
+            assertTrue(result.checkstyleViolations().stream().allMatch(violation -> "concurrentTasks".equals(violation.rule())));
+            assertFalse(result.firstVersion());
+            assertFalse(result.truncated());
+            assertTrue(result.report().contains("#### Checkstyle Violations"));
+            assertTrue(result.report().contains("#### Flow Changes"));
+
+            // snapshots held in memory by the caller
+            final FlowDiffResult newFlow = engine.compare(null,
+                    FlowDiff.getFlowContainer("src/test/resources/flow_v1_initial.json").getFlowSnapshot(), false, null);
+            assertTrue(newFlow.firstVersion());
+            assertTrue(newFlow.differences().isEmpty());
+            assertTrue(newFlow.checkstyleViolations().isEmpty());
+        }
+    }
+
+    @Test
+    void testHeapAdmission() throws Exception {
+        final HeapAdmission admission = new HeapAdmission(100);
+        // a pair bigger than the budget is admitted alone
+        admission.acquire(500);
+        admission.release(500);
+
+        admission.acquire(60);
+        final AtomicBoolean released = new AtomicBoolean();
+        final CompletableFuture<Boolean> admittedAfterRelease = new CompletableFuture<>();
+        final Thread waiter = Thread.ofPlatform().daemon().start(() -> {
+            try {
+                admission.acquire(60);
+                admittedAfterRelease.complete(released.get());
+            } catch (InterruptedException e) {
+                admittedAfterRelease.completeExceptionally(e);
+            }
+        });
+        // the second pair waits until the first one is released
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(Thread.State.WAITING, waiter.getState());
+        assertFalse(admittedAfterRelease.isDone());
+        released.set(true);
+        admission.release(60);
+        assertTrue(admittedAfterRelease.get(10, TimeUnit.SECONDS));
+
+        final SnapshotLoader loader = new SnapshotLoader();
+        final long size = Files.size(Path.of("src/test/resources/flow_v1_initial.json"));
+        assertTrue(HeapAdmission.estimate(loader, "src/test/resources/does_not_exist.json", "src/test/resources/flow_v1_initial.json") > size);
+    }
+
+    @Test
+    void testParallelExecutionKeepsInputOrder() throws IOException {
+        final List<String> pathsA = List.of(
+                "src/test/resources/flow_v1_initial.json",
+                "src/test/resources/flow_v2_added_component.json",
+                "src/test/resources/flow_v3_config_changes.json",
+                "src/test/resources/flow_v5_property_parameter.json");
+        final List<String> pathsB = List.of(
+                "src/test/resources/flow_v2_added_component.json",
+                "src/test/resources/flow_v3_config_changes.json",
+                "src/test/resources/flow_v4_parameters.json",
+                "src/test/resources/flow_v6_parameter_value.json");
+
+        final List<FlowDiffContext> sequential = FlowDiff.executeFlowDiffs(pathsA, pathsB, true, null, new FlowDiffOptions());
+        final FlowDiffOptions parallelOptions = new FlowDiffOptions();
+        parallelOptions.setParallelism(4);
+        final List<FlowDiffContext> parallel = FlowDiff.executeFlowDiffs(pathsA, pathsB, true, null, parallelOptions);
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getFlowName(), parallel.get(i).getFlowName());
+            assertEquals(sequential.get(i).getOutput(), parallel.get(i).getOutput());
+        }
+    }
+}
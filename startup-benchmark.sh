@@ -0,0 +1,67 @@
+#!/bin/sh
+
+# Copyright 2025 Snowflake Inc.
+# SPDX-License-Identifier: Apache-2.0
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+# http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+# Compares the startup of the action with and without the class data sharing archive of the image:
+# the time to the first line of the report, and the time to the complete report, median of the runs.
+# Usage: startup-benchmark.sh <flowA> <flowB> [runs]
+# e.g. docker run --rm -v "$PWD:/work" --entrypoint /startup-benchmark.sh <image> /work/a.json /work/b.json 10
+
+JAR=${JAR:-/flow-diff.jar}
+ARCHIVE=${ARCHIVE:-/flow-diff.jsa}
+RUNS=${3:-10}
+
+now() {
+    date +%s%N
+}
+
+# prints the milliseconds to the first line and to the end of the output of one run
+measure() {
+    start=$(now)
+    java "$@" -jar "$JAR" "$FLOW_A" "$FLOW_B" "" "" "" true | {
+        read -r _
+        first=$(now)
+        cat > /dev/null
+        echo "$(( (first - start) / 1000000 )) $(( ($(now) - start) / 1000000 ))"
+    }
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+benchmark() {
+    label=$1
+    shift
+    # the first run warms the page cache of the jar and the archive
+    measure "$@" > /dev/null
+    results=$(i=0; while [ "$i" -lt "$RUNS" ]; do measure "$@"; i=$((i + 1)); done)
+    echo "$label: first output $(echo "$results" | cut -d' ' -f1 | median) ms, report $(echo "$results" | cut -d' ' -f2 | median) ms"
+}
+
+if [ $# -lt 2 ]; then
+    echo "Usage: $0 <flowA> <flowB> [runs]"
+    exit 1
+fi
+FLOW_A=$1
+FLOW_B=$2
+if [ ! -f "$ARCHIVE" ]; then
+    echo "No class data sharing archive at $ARCHIVE"
+    exit 1
+fi
+
+benchmark "Without archive" -Xshare:auto
+benchmark "With archive" -XX:SharedArchiveFile="$ARCHIVE" -Xlog:cds=off -Xlog:cds+dynamic=off